@@ -0,0 +1,60 @@
+package com.michelin.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.michelin.utils.Tire;
+
+// Container and tire sizes shared by the benchmarks, in the internal units (x1000)
+final class BenchmarkScenario {
+    private static final double SCALE = 1000.0;
+    // Share of the container covered by tires plus spacing
+    private static final double TARGET_DENSITY = 0.6;
+
+    final long width;
+    final long height;
+    final long radius;
+    final long distBorder;
+    final long distTire;
+
+    private BenchmarkScenario(long width, long height, long radius, long distBorder, long distTire) {
+        this.width = width;
+        this.height = height;
+        this.radius = radius;
+        this.distBorder = distBorder;
+        this.distTire = distTire;
+    }
+
+    // "800x600" in the units of the UI sliders
+    static long[] parseContainer(String container) {
+        String[] parts = container.split("x");
+        return new long[] { (long) (Double.parseDouble(parts[0]) * SCALE),
+                (long) (Double.parseDouble(parts[1]) * SCALE) };
+    }
+
+    // Radius picked so tireCount tires with spacing and border of half a radius fill the container
+    static BenchmarkScenario forTireCount(String container, int tireCount) {
+        long[] size = parseContainer(container);
+        double footprint = Math.sqrt(TARGET_DENSITY * size[0] * size[1] / (Math.PI * tireCount));
+        long radius = (long) (footprint / 1.25);
+        return new BenchmarkScenario(size[0], size[1], radius, radius / 2, radius / 2);
+    }
+
+    static BenchmarkScenario fixed(String container, double radius, double distBorder, double distTire) {
+        long[] size = parseContainer(container);
+        return new BenchmarkScenario(size[0], size[1], (long) (radius * SCALE), (long) (distBorder * SCALE),
+                (long) (distTire * SCALE));
+    }
+
+    List<Tire> randomLayout(int tireCount, long seed) {
+        Random random = new Random(seed);
+        List<Tire> tires = new ArrayList<>(tireCount);
+        for (int i = 0; i < tireCount; i++) {
+            long x = distBorder + (long) (random.nextDouble() * (width - 2 * distBorder));
+            long y = distBorder + (long) (random.nextDouble() * (height - 2 * distBorder));
+            tires.add(new Tire("Benchmark", radius, x, y));
+        }
+        return tires;
+    }
+}
@@ -0,0 +1,57 @@
+package com.michelin.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.michelin.HeadlessRunner;
+import com.michelin.Optimization.AbstractOptimization;
+import com.michelin.utils.PlacementValidator;
+
+// End-to-end time until an optimization reports its best count
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class OptimizationBenchmark {
+    private static final String OPTIMIZATION_PACKAGE = "com.michelin.Optimization.";
+
+    @Param({ "HexagonalOptimization", "SquareGridOptimization", "LatticeSearchOptimization",
+            "HybridBandOptimization", "GreedyPlacementOptimization", "SimulatedAnnealingOptimization",
+            "MaxForceOptimization" })
+    String method;
+
+    @Param({ "800x600", "1200x900" })
+    String container;
+
+    private BenchmarkScenario scenario;
+    private PlacementValidator validator;
+
+    @Setup
+    public void createScenario() {
+        scenario = BenchmarkScenario.fixed(container, 50, 50, 50);
+        validator = new PlacementValidator(scenario.width, scenario.height, scenario.distBorder,
+                scenario.distTire);
+    }
+
+    @Benchmark
+    public int timeToBestCount() throws Exception {
+        AbstractOptimization optimization = (AbstractOptimization) Class.forName(OPTIMIZATION_PACKAGE + method)
+                .getDeclaredConstructor(long.class, long.class, long.class, long.class, long.class)
+                .newInstance(scenario.radius, scenario.width, scenario.height, scenario.distBorder,
+                        scenario.distTire);
+        return validator.countValid(HeadlessRunner.runToCompletion(optimization));
+    }
+}
@@ -0,0 +1,64 @@
+package com.michelin.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.michelin.Optimization.Physic;
+
+/**
+ * Physic.run() steps per second. Run with the gc profiler (BenchmarkMain adds
+ * it) to get the allocation per step as gc.alloc.rate.norm.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PhysicBenchmark {
+
+    @Param({ "50", "200", "800" })
+    int tireCount;
+
+    @Param({ "800x600", "1600x1200" })
+    String container;
+
+    private Physic physic;
+
+    @Setup(Level.Trial)
+    public void createPhysic() {
+        BenchmarkScenario scenario = BenchmarkScenario.forTireCount(container, tireCount);
+        physic = new Physic(scenario.radius, scenario.width, scenario.height, scenario.distBorder,
+                scenario.distTire, Long.MAX_VALUE, tireCount);
+        physic.setSeed(1);
+    }
+
+    // Start every iteration from the same random layout so it is not measuring a settled system
+    @Setup(Level.Iteration)
+    public void resetLayout() {
+        physic.setup();
+    }
+
+    @Benchmark
+    public void step() {
+        physic.run();
+    }
+
+    @Benchmark
+    public int stepAndCountValid() {
+        physic.run();
+        return physic.validCount();
+    }
+}
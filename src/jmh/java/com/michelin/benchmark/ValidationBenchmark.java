@@ -0,0 +1,70 @@
+package com.michelin.benchmark;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.michelin.utils.PlacementValidator;
+import com.michelin.utils.Tire;
+
+// Layouts validated per second, grid validator against the per-tire list scan
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationBenchmark {
+
+    @Param({ "50", "200", "800" })
+    int tireCount;
+
+    @Param({ "800x600", "1600x1200" })
+    String container;
+
+    private BenchmarkScenario scenario;
+    private List<Tire> layout;
+    private PlacementValidator validator;
+
+    @Setup
+    public void createLayout() {
+        scenario = BenchmarkScenario.forTireCount(container, tireCount);
+        layout = scenario.randomLayout(tireCount, 42);
+        validator = new PlacementValidator(scenario.width, scenario.height, scenario.distBorder,
+                scenario.distTire);
+    }
+
+    @Benchmark
+    public BitSet placementValidator() {
+        return validator.validate(layout);
+    }
+
+    @Benchmark
+    public BitSet placementValidatorParallel() {
+        return validator.validate(layout, true);
+    }
+
+    @Benchmark
+    public int isValidTireScan() {
+        int valid = 0;
+        for (Tire tire : layout) {
+            if (Tire.isValidTire(tire, scenario.width, scenario.height, scenario.distBorder, layout,
+                    scenario.distTire)) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+}
@@ -0,0 +1,363 @@
+package com.michelin;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.michelin.Optimization.AbstractOptimization;
+import com.michelin.Optimization.Budget;
+import com.michelin.Optimization.InitialLayout;
+import com.michelin.Optimization.OptimizationResult;
+import com.michelin.Optimization.ResultCache;
+import com.michelin.utils.PlacementValidator;
+import com.michelin.utils.TireLayout;
+
+/**
+ * Runs optimizations without JavaFX, for compute nodes without a display.
+ *
+ * Single job:
+ *   java -cp hackaton-michelin.jar com.michelin.HeadlessRunner --method MaxForceOptimization
+ *       --radius 100 --width 800 --height 600 --border 100 --spacing 100 --out result.csv
+ *
+ * Many jobs, one per line as method,radius,width,height,border,spacing:
+ *   java -cp hackaton-michelin.jar com.michelin.HeadlessRunner --jobs jobs.csv --threads 4 --out result.csv
+ *
+ * Values use the same units as the sliders in Main and are scaled by 1000
+ * internally. The output CSV holds one row per tire of every job. With
+ * --seed N every job of a seeded optimization starts from the same seed.
+ * --time-limit SECONDS and --max-steps N give every job a Budget; a job that
+ * runs out returns the best layout found so far. With --cache DIR results of
+ * runs that finished within the time limit and without --max-steps are kept
+ * in DIR and a job that was already solved is answered from there; a
+ * layout for a smaller container seeds optimizations with setInitialLayout.
+ */
+public class HeadlessRunner {
+    private static final double SCALE = 1000.0;
+    private static final String OPTIMIZATION_PACKAGE = "com.michelin.Optimization.";
+    private static final long POLL_MILLIS = 10;
+
+    static class Job {
+        final int id;
+        final String method;
+        final long radius;
+        final long width;
+        final long height;
+        final long distBorder;
+        final long distTire;
+
+        Job(int id, String method, double radius, double width, double height, double distBorder,
+                double distTire) {
+            this.id = id;
+            this.method = method;
+            this.radius = (long) (radius * SCALE);
+            this.width = (long) (width * SCALE);
+            this.height = (long) (height * SCALE);
+            this.distBorder = (long) (distBorder * SCALE);
+            this.distTire = (long) (distTire * SCALE);
+        }
+    }
+
+    static class JobResult {
+        final Job job;
+        final OptimizationResult result;
+        final BitSet valid;
+        final long millis;
+
+        JobResult(Job job, OptimizationResult result, BitSet valid, long millis) {
+            this.job = job;
+            this.result = result;
+            this.valid = valid;
+            this.millis = millis;
+        }
+    }
+
+    public static void main(String[] args) {
+        try {
+            Map<String, String> options = parseOptions(args);
+            List<Job> jobs = options.containsKey("jobs") ? readJobs(Paths.get(options.get("jobs")))
+                    : List.of(jobFromOptions(options));
+            int threads = Integer.parseInt(options.getOrDefault("threads", "1"));
+            Path out = Paths.get(options.getOrDefault("out", "results.csv"));
+            Long seed = options.containsKey("seed") ? Long.valueOf(options.get("seed")) : null;
+            Budget budget = budgetFromOptions(options);
+            ResultCache cache = options.containsKey("cache")
+                    ? new ResultCache(ResultCache.DEFAULT_CAPACITY, Paths.get(options.get("cache")))
+                    : null;
+
+            List<JobResult> results = runJobs(jobs, threads, seed, budget, cache);
+            writeResults(results, out);
+            for (JobResult result : results) {
+                System.out.println(String.format(Locale.ROOT,
+                        "Job %d (%s): %d valid tires in %d ms, area bound %d (gap %d)", result.job.id,
+                        result.job.method, result.valid.cardinality(), result.millis,
+                        result.result.getUpperBound(), result.result.getGap()));
+            }
+            System.out.println("Results written to " + out.toAbsolutePath());
+            System.exit(0);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage();
+            System.exit(2);
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    static List<JobResult> runJobs(List<Job> jobs, int threads, Long seed, Budget budget, ResultCache cache)
+            throws InterruptedException, ExecutionException {
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            List<Future<JobResult>> futures = new ArrayList<>();
+            for (Job job : jobs) {
+                futures.add(workers.submit(() -> runJob(job, seed, budget, cache)));
+            }
+            List<JobResult> results = new ArrayList<>();
+            for (Future<JobResult> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    // A bad job description is a usage error, not a crash
+                    if (e.getCause() instanceof IllegalArgumentException) {
+                        throw (IllegalArgumentException) e.getCause();
+                    }
+                    throw e;
+                }
+            }
+            return results;
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    // cache may be null
+    static JobResult runJob(Job job, Long seed, Budget budget, ResultCache cache)
+            throws ReflectiveOperationException, InterruptedException {
+        PlacementValidator validator = new PlacementValidator(job.width, job.height, job.distBorder, job.distTire);
+        long start = System.nanoTime();
+        TireLayout cached = cache == null ? null
+                : cache.get(job.method, job.radius, job.width, job.height, job.distBorder, job.distTire);
+        OptimizationResult result;
+        if (cached != null) {
+            result = OptimizationResult.of(cached, validator);
+        } else {
+            AbstractOptimization optimization = createOptimization(job);
+            if (seed != null) {
+                setSeed(optimization, seed);
+            }
+            TireLayout warmStart = cache == null ? null
+                    : cache.warmStart(job.radius, job.width, job.height, job.distBorder, job.distTire);
+            if (warmStart != null) {
+                setInitialLayout(optimization, InitialLayout.fromLayout(warmStart));
+            }
+            // A run cut by the budget is not cached, a later run with more budget may do better
+            Consumer<OptimizationResult> onComplete = cache == null ? null
+                    : complete -> cache.put(job.method, job.radius, job.width, job.height, job.distBorder,
+                            job.distTire, complete.getLayout());
+            result = runWithBudget(optimization, budget, validator, onComplete);
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        BitSet valid = validator.validate(result.getLayout(), true);
+        return new JobResult(job, result, valid, millis);
+    }
+
+    // Same contract as the AnimationTimer in Main, without waiting for frames
+    public static TireLayout runToCompletion(AbstractOptimization optimization) throws InterruptedException {
+        optimization.setup();
+        try {
+            runUntilFinished(optimization, Budget.UNLIMITED, System.nanoTime());
+            return optimization.getResult();
+        } finally {
+            optimization.stop();
+        }
+    }
+
+    /**
+     * Runs the optimization until it finishes or the budget runs out and
+     * returns the best result found by then. The optimization enforces the
+     * budget itself; the time limit is also checked here for optimizations
+     * that ignore it.
+     */
+    public static OptimizationResult runWithBudget(AbstractOptimization optimization, Budget budget,
+            PlacementValidator validator) throws InterruptedException {
+        return runWithBudget(optimization, budget, validator, null);
+    }
+
+    /**
+     * Same as above, and onComplete (may be null) also gets the result when
+     * the optimization ended on its own and isComplete(). With a step limit
+     * there is no telling whether the optimization stopped because of it, so
+     * such runs never count as complete.
+     */
+    static OptimizationResult runWithBudget(AbstractOptimization optimization, Budget budget,
+            PlacementValidator validator, Consumer<OptimizationResult> onComplete) throws InterruptedException {
+        optimization.setBudget(budget);
+        long start = System.nanoTime();
+        optimization.setup();
+        try {
+            boolean complete = runUntilFinished(optimization, budget, start) && !budget.hasStepLimit()
+                    && optimization.isComplete();
+            OptimizationResult result = optimization.getBestResult(validator);
+            if (complete && onComplete != null) {
+                onComplete.accept(result);
+            }
+            return result;
+        } finally {
+            optimization.stop();
+        }
+    }
+
+    // Whether the optimization finished before the time limit
+    private static boolean runUntilFinished(AbstractOptimization optimization, Budget budget, long start)
+            throws InterruptedException {
+        do {
+            optimization.run();
+            if (optimization.runsInBackground()) {
+                Thread.sleep(POLL_MILLIS);
+            }
+        } while (!optimization.isFinished() && !budget.isExpired(start));
+        return !budget.isExpired(start);
+    }
+
+    static AbstractOptimization createOptimization(Job job) throws ReflectiveOperationException {
+        Class<?> type;
+        try {
+            type = Class.forName(OPTIMIZATION_PACKAGE + job.method);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Unknown optimization: " + job.method);
+        }
+        if (!AbstractOptimization.class.isAssignableFrom(type)) {
+            throw new IllegalArgumentException("Not an optimization: " + job.method);
+        }
+        try {
+            return (AbstractOptimization) type
+                    .getDeclaredConstructor(long.class, long.class, long.class, long.class, long.class)
+                    .newInstance(job.radius, job.width, job.height, job.distBorder, job.distTire);
+        } catch (NoSuchMethodException e) {
+            // E.g. Physic, which also needs a tire count and an iteration limit
+            throw new IllegalArgumentException("Unsupported optimization: " + job.method
+                    + " has no (radius, width, height, border, spacing) constructor");
+        }
+    }
+
+    // Optimizations that draw random numbers expose setSeed(long), the others are deterministic already
+    static void setSeed(AbstractOptimization optimization, long seed) throws ReflectiveOperationException {
+        try {
+            optimization.getClass().getMethod("setSeed", long.class).invoke(optimization, seed);
+        } catch (NoSuchMethodException e) {
+            // Nothing to seed
+        }
+    }
+
+    // Optimizations that start from positions expose setInitialLayout, the others ignore the warm start
+    static void setInitialLayout(AbstractOptimization optimization, InitialLayout layout)
+            throws ReflectiveOperationException {
+        try {
+            optimization.getClass().getMethod("setInitialLayout", InitialLayout.class).invoke(optimization, layout);
+        } catch (NoSuchMethodException e) {
+            // Nothing to warm start
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Invalid argument: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+
+    // Zero or missing means no limit
+    private static Budget budgetFromOptions(Map<String, String> options) {
+        double seconds = options.containsKey("time-limit") ? requireNumber(options, "time-limit") : 0;
+        long maxSteps = options.containsKey("max-steps") ? (long) requireNumber(options, "max-steps") : 0;
+        if (seconds < 0 || maxSteps < 0) {
+            throw new IllegalArgumentException("--time-limit and --max-steps must not be negative");
+        }
+        return Budget.of((long) (seconds * 1000), TimeUnit.MILLISECONDS, maxSteps);
+    }
+
+    private static Job jobFromOptions(Map<String, String> options) {
+        return new Job(1, options.getOrDefault("method", "MaxForceOptimization"),
+                requireNumber(options, "radius"), requireNumber(options, "width"),
+                requireNumber(options, "height"), requireNumber(options, "border"),
+                requireNumber(options, "spacing"));
+    }
+
+    private static double requireNumber(Map<String, String> options, String name) {
+        String value = options.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing --" + name);
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for --" + name + ": " + value);
+        }
+    }
+
+    // One job per line: method,radius,width,height,border,spacing. Empty lines and # comments are skipped
+    static List<Job> readJobs(Path file) throws IOException {
+        List<Job> jobs = new ArrayList<>();
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\\s*,\\s*");
+            if (fields.length != 6) {
+                throw new IllegalArgumentException("Line " + lineNumber + " of " + file + " must have 6 fields");
+            }
+            try {
+                jobs.add(new Job(jobs.size() + 1, fields[0], Double.parseDouble(fields[1]),
+                        Double.parseDouble(fields[2]), Double.parseDouble(fields[3]),
+                        Double.parseDouble(fields[4]), Double.parseDouble(fields[5])));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Line " + lineNumber + " of " + file + ": " + e.getMessage());
+            }
+        }
+        return jobs;
+    }
+
+    static void writeResults(List<JobResult> results, Path out) throws IOException {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(out, StandardCharsets.UTF_8))) {
+            writer.println("job,method,tire,x,y,radius,valid");
+            for (JobResult result : results) {
+                TireLayout layout = result.result.getLayout();
+                for (int i = 0; i < layout.size(); i++) {
+                    writer.println(String.format(Locale.ROOT, "%d,%s,%d,%.3f,%.3f,%.3f,%b", result.job.id,
+                            result.job.method, i + 1, layout.getX(i) / SCALE, layout.getY(i) / SCALE,
+                            layout.getRadius() / SCALE, result.valid.get(i)));
+                }
+            }
+        }
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage: HeadlessRunner [--method NAME] --radius R --width W --height H"
+                + " --border B --spacing S [--seed N] [--time-limit SECONDS] [--max-steps N] [--cache DIR]"
+                + " [--out FILE]");
+        System.err.println("       HeadlessRunner --jobs FILE [--threads N] [--seed N] [--time-limit SECONDS]"
+                + " [--max-steps N] [--cache DIR] [--out FILE]");
+    }
+}
@@ -0,0 +1,143 @@
+package com.michelin;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.Consumer;
+
+import com.michelin.utils.TireLayout;
+import com.michelin.utils.TireRenderer;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.WritableImage;
+
+/**
+ * Draws layouts on the main canvas from cached images. The static layer
+ * (background, border stripes, ...) is rendered once into an image and tires
+ * are blitted from the sprites in TireRenderer. Between frames only the areas
+ * of tires that moved, appeared or disappeared are restored from the static
+ * layer and redrawn. Tires are matched between frames by their index in the
+ * layout. Must be used from the JavaFX Application Thread.
+ */
+public class LayoutRenderer {
+    // Above this share of changed tires a full repaint is cheaper than patching
+    private static final double FULL_REPAINT_RATIO = 0.25;
+
+    private WritableImage staticLayer;
+    private boolean fullRepaint = true;
+
+    // Tire positions in pixels drawn in the previous frame, NaN when not drawn
+    private double[] drawnX = new double[0];
+    private double[] drawnY = new double[0];
+    private double[] drawnR = new double[0];
+
+    // Dirty rectangles of the current frame as x0, y0, x1, y1
+    private double[] dirty = new double[0];
+    private int dirtyCount;
+
+    public void setStaticLayer(double width, double height, Consumer<GraphicsContext> painter) {
+        Canvas canvas = new Canvas(width, height);
+        painter.accept(canvas.getGraphicsContext2D());
+        staticLayer = canvas.snapshot(new SnapshotParameters(), null);
+        fullRepaint = true;
+    }
+
+    // The next render repaints everything, e.g. after something else drew over the canvas
+    public void invalidate() {
+        fullRepaint = true;
+    }
+
+    // Draws the tires whose bit is set in visible
+    public void render(GraphicsContext gc, TireLayout layout, BitSet visible) {
+        int count = layout.size();
+        double r = layout.getRadius() / 1000.0;
+        ensureCapacity(count);
+
+        int previous = drawnX.length;
+        dirtyCount = 0;
+        if (!fullRepaint) {
+            for (int i = 0; i < previous; i++) {
+                boolean shown = i < count && visible.get(i);
+                double x = shown ? layout.getX(i) / 1000.0 : Double.NaN;
+                double y = shown ? layout.getY(i) / 1000.0 : Double.NaN;
+                if (shown && drawnX[i] == x && drawnY[i] == y && drawnR[i] == r) {
+                    continue;
+                }
+                if (!Double.isNaN(drawnX[i])) {
+                    addDirty(drawnX[i], drawnY[i], drawnR[i]);
+                }
+                if (shown) {
+                    addDirty(x, y, r);
+                }
+            }
+            if (dirtyCount > Math.max(1, count) * FULL_REPAINT_RATIO * 2) {
+                fullRepaint = true;
+            }
+        }
+
+        if (fullRepaint) {
+            gc.drawImage(staticLayer, 0, 0);
+        } else {
+            for (int d = 0; d < dirtyCount; d++) {
+                double x0 = dirty[4 * d];
+                double y0 = dirty[4 * d + 1];
+                double w = dirty[4 * d + 2] - x0;
+                double h = dirty[4 * d + 3] - y0;
+                gc.drawImage(staticLayer, x0, y0, w, h, x0, y0, w, h);
+            }
+        }
+
+        for (int i = 0; i < Math.max(count, previous); i++) {
+            if (i >= count || !visible.get(i)) {
+                drawnX[i] = Double.NaN;
+                continue;
+            }
+            double x = layout.getX(i) / 1000.0;
+            double y = layout.getY(i) / 1000.0;
+            if (fullRepaint || intersectsDirty(x, y, r)) {
+                TireRenderer.drawSprite(gc, layout.getRadius(), layout.getX(i), layout.getY(i));
+            }
+            drawnX[i] = x;
+            drawnY[i] = y;
+            drawnR[i] = r;
+        }
+        fullRepaint = false;
+    }
+
+    private void ensureCapacity(int count) {
+        if (drawnX.length < count) {
+            int oldLength = drawnX.length;
+            drawnX = Arrays.copyOf(drawnX, count);
+            drawnY = Arrays.copyOf(drawnY, count);
+            drawnR = Arrays.copyOf(drawnR, count);
+            Arrays.fill(drawnX, oldLength, count, Double.NaN);
+        }
+    }
+
+    // Area covered by a tire sprite, snapped outwards to whole pixels
+    private void addDirty(double x, double y, double r) {
+        if (dirty.length < 4 * (dirtyCount + 1)) {
+            dirty = Arrays.copyOf(dirty, Math.max(16, dirty.length * 2));
+        }
+        double extent = r + TireRenderer.SPRITE_PADDING + 1;
+        dirty[4 * dirtyCount] = Math.max(0, Math.floor(x - extent));
+        dirty[4 * dirtyCount + 1] = Math.max(0, Math.floor(y - extent));
+        dirty[4 * dirtyCount + 2] = Math.min(staticLayer.getWidth(), Math.ceil(x + extent));
+        dirty[4 * dirtyCount + 3] = Math.min(staticLayer.getHeight(), Math.ceil(y + extent));
+        if (dirty[4 * dirtyCount + 2] > dirty[4 * dirtyCount] && dirty[4 * dirtyCount + 3] > dirty[4 * dirtyCount + 1]) {
+            dirtyCount++;
+        }
+    }
+
+    private boolean intersectsDirty(double x, double y, double r) {
+        double extent = r + TireRenderer.SPRITE_PADDING;
+        for (int d = 0; d < dirtyCount; d++) {
+            if (x + extent > dirty[4 * d] && x - extent < dirty[4 * d + 2] && y + extent > dirty[4 * d + 1]
+                    && y - extent < dirty[4 * d + 3]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
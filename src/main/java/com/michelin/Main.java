@@ -3,15 +3,23 @@ package com.michelin;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Comparator;
 import java.util.List;
 
 import com.michelin.Optimization.AbstractOptimization;
+import com.michelin.Optimization.GreedyPlacementOptimization;
 import com.michelin.Optimization.HexagonalOptimization;
+import com.michelin.Optimization.HybridBandOptimization;
+import com.michelin.Optimization.LatticeSearchOptimization;
 import com.michelin.Optimization.MaxForceOptimization;
+import com.michelin.Optimization.OptimizationRunner;
 import com.michelin.Optimization.Physic;
+import com.michelin.Optimization.SimulatedAnnealingOptimization;
 import com.michelin.Optimization.SquareGridOptimization;
+import com.michelin.utils.PlacementValidator;
 import com.michelin.utils.Tire;
+import com.michelin.utils.TireLayout;
 
 import javafx.animation.AnimationTimer;
 import javafx.application.Application;
@@ -40,7 +48,17 @@ import javafx.stage.Stage;
 
 public class Main extends Application {
 
-    private AbstractOptimization optimizationMethod;
+    // Redibujar como mucho 30 veces por segundo, 0 para dibujar en cada frame
+    private static final long MIN_FRAME_NANOS = 1_000_000_000L / 30;
+
+    // La optimización se ejecuta en su propio hilo, la interfaz solo pinta sus resultados
+    private OptimizationRunner solver;
+    // Pinta desde imágenes en caché y solo repinta las zonas que cambian
+    private final LayoutRenderer layoutRenderer = new LayoutRenderer();
+    // Último resultado pintado, para poder repintarlo al cambiar la capa estática
+    private TireLayout renderedLayout;
+    private BitSet renderedValid;
+    private boolean renderedFinished;
     private Label tireCountLabel;
     private Label occupancyLabel = new Label("Ocupación: 0%");
     private static ListView<String> coordinatesListView = new ListView<>();
@@ -101,6 +119,10 @@ public class Main extends Application {
             List<Class<? extends AbstractOptimization>> optimizationClasses = Arrays.asList(
                     HexagonalOptimization.class,
                     SquareGridOptimization.class,
+                    LatticeSearchOptimization.class,
+                    HybridBandOptimization.class,
+                    GreedyPlacementOptimization.class,
+                    SimulatedAnnealingOptimization.class,
                     MaxForceOptimization.class);
 
             optimizationDropdown.getItems().addAll(optimizationClasses);
@@ -240,53 +262,38 @@ public class Main extends Application {
 
             // Listener para el checkbox de mostrar franjas diagonales
             showStripesCheckbox.selectedProperty().addListener((obs, oldVal, newVal) -> {
-                if (newVal) {
-                    // Dibujar las franjas diagonales y las esquinas negras
-                    drawDiagonalStripes(gc, canvas.getWidth(), canvas.getHeight(), distBorderSlider.getValue(), true);
-                    drawCornerSquares(gc, canvas.getWidth(), canvas.getHeight(), distBorderSlider.getValue(), true);
-                } else {
-                    // Borrar las franjas diagonales y las esquinas negras
-                    gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
-                    gc.setFill(Color.LIGHTGRAY);
-                    gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
-                    gc.setStroke(Color.BLACK);
-                    gc.strokeRect(0, 0, canvas.getWidth(), canvas.getHeight());
-
-                    // Redibujar las ruedas existentes y sus números
-                    if (optimizationMethod != null) {
-                        List<Tire> currentTires = optimizationMethod.getResult();
-                        for (Tire tire : currentTires) {
-                            tire.draw(gc);
-                        }
-                        drawNumber(gc, currentTires, (int) canvas.getWidth(), (int) canvas.getHeight(),
-                                (int) distBorderSlider.getValue());
+                // Las franjas y las esquinas negras forman parte de la capa estática
+                double canvasWidth = canvas.getWidth();
+                double canvasHeight = canvas.getHeight();
+                double borderDistance = distBorderSlider.getValue();
+                layoutRenderer.setStaticLayer(canvasWidth, canvasHeight,
+                        layer -> drawBackground(layer, canvasWidth, canvasHeight, borderDistance, newVal));
+
+                // Redibujar las ruedas existentes y sus números
+                if (renderedLayout != null) {
+                    layoutRenderer.render(gc, renderedLayout, renderedValid);
+                    if (renderedFinished) {
+                        drawNumber(gc, validTires(renderedLayout, renderedValid), (int) canvasWidth,
+                                (int) canvasHeight, (int) borderDistance);
                     }
+                } else {
+                    drawBackground(gc, canvasWidth, canvasHeight, borderDistance, newVal);
                 }
             });
 
             // Add listeners to update container size in real-time
             widthSlider.valueProperty().addListener((obs, oldVal, newVal) -> {
                 canvas.setWidth(newVal.doubleValue());
-                gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
-                gc.setFill(Color.LIGHTGRAY);
-                gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
-                gc.setStroke(Color.BLACK); // Asegurar que el borde sea negro
-                gc.strokeRect(0, 0, canvas.getWidth(), canvas.getHeight());
-                drawAxes(gc);
-                drawDiagonalStripes(gc, canvas.getWidth(), canvas.getHeight(), distBorderSlider.getValue(),
+                drawBackground(gc, canvas.getWidth(), canvas.getHeight(), distBorderSlider.getValue(),
                         showStripesCheckbox.isSelected());
+                layoutRenderer.invalidate();
             });
 
             heightSlider.valueProperty().addListener((obs, oldVal, newVal) -> {
                 canvas.setHeight(newVal.doubleValue());
-                gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
-                gc.setFill(Color.LIGHTGRAY);
-                gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
-                gc.setStroke(Color.BLACK); // Asegurar que el borde sea negro
-                gc.strokeRect(0, 0, canvas.getWidth(), canvas.getHeight());
-                drawAxes(gc);
-                drawDiagonalStripes(gc, canvas.getWidth(), canvas.getHeight(), distBorderSlider.getValue(),
+                drawBackground(gc, canvas.getWidth(), canvas.getHeight(), distBorderSlider.getValue(),
                         showStripesCheckbox.isSelected());
+                layoutRenderer.invalidate();
             });
 
             distBorderSlider.valueProperty().addListener((obs, oldVal, newVal) -> {
@@ -302,10 +309,8 @@ public class Main extends Application {
                 // Desactivar el checkbox de mostrar franjas diagonales
                 showStripesCheckbox.setSelected(false);
 
-                // Llamar a resetTireCount antes de cualquier otra acción
-                Tire.resetTireCount();
-                if (optimizationMethod != null && !optimizationMethod.isFinished()) {
-                    optimizationMethod.stop();
+                if (solver != null) {
+                    solver.stop();
                 }
                 // Stop current optimization if running
                 if (currentTimer[0] != null) {
@@ -319,23 +324,19 @@ public class Main extends Application {
                 canvas.setWidth(newWidth);
                 canvas.setHeight(newHeight);
 
-                gc.clearRect(0, 0, newWidth, newHeight);
-                gc.setFill(Color.LIGHTGRAY);
-                gc.fillRect(0, 0, newWidth, newHeight);
-                gc.setStroke(Color.BLACK); // Asegurar que el borde sea negro
-                gc.strokeRect(0, 0, newWidth, newHeight);
-
-                // Borrar los ejes antes de iniciar la optimización
-                clearAxes(gc);
-
-                // Dibujar las franjas diagonales si están activadas
-                drawDiagonalStripes(gc, newWidth, newHeight, distBorderSlider.getValue(),
-                        showStripesCheckbox.isSelected());
+                // Fondo cacheado (franjas, esquinas y ejes) sobre el que se pintan las ruedas
+                double borderDistance = distBorderSlider.getValue();
+                boolean showStripes = showStripesCheckbox.isSelected();
+                drawBackground(gc, newWidth, newHeight, borderDistance, showStripes);
+                layoutRenderer.setStaticLayer(newWidth, newHeight,
+                        layer -> drawBackground(layer, newWidth, newHeight, borderDistance, showStripes));
+                renderedLayout = null;
+                renderedValid = null;
 
                 try {
                     // Create optimization based on selected class
                     Class<? extends AbstractOptimization> selectedClass = optimizationDropdown.getValue();
-                    optimizationMethod = selectedClass.getDeclaredConstructor(
+                    AbstractOptimization optimizationMethod = selectedClass.getDeclaredConstructor(
                             long.class, long.class, long.class, long.class, long.class).newInstance(
                                     (long) (radiusSlider.getValue() * 1000),
                                     (long) (newWidth * 1000),
@@ -343,60 +344,47 @@ public class Main extends Application {
                                     (long) (distBorderSlider.getValue() * 1000),
                                     (long) (distTireSlider.getValue() * 1000));
 
-                    optimizationMethod.setup();
+                    // setup(), los pasos y la validación se ejecutan en el hilo del solver
+                    PlacementValidator validator = new PlacementValidator((long) (newWidth * 1000),
+                            (long) (newHeight * 1000),
+                            (long) (distBorderSlider.getValue() * 1000),
+                            (long) (distTireSlider.getValue() * 1000));
+                    final OptimizationRunner runner = new OptimizationRunner(optimizationMethod, validator);
+                    solver = runner;
+                    runner.start();
 
                     // Create animation timer to handle continuous optimization
                     AnimationTimer timer = new AnimationTimer() {
+                        private long lastVersion = -1;
+                        private long lastRender;
+
                         @Override
                         public void handle(long now) {
-                            // Run one optimization step
-                            optimizationMethod.run();
-
-                            // Clear and redraw
-                            gc.clearRect(0, 0, newWidth, newHeight);
-                            gc.setFill(Color.LIGHTGRAY);
-                            gc.fillRect(0, 0, newWidth, newHeight);
-                            gc.setStroke(Color.BLACK); // Asegurar que el borde sea negro
-                            gc.strokeRect(0, 0, newWidth, newHeight);
-
-                            // Draw current state and count valid tires
-                            List<Tire> currentTires = optimizationMethod.getResult();
-                            List<Tire> validTires = new ArrayList<>();
-
-                            for (Tire tire : currentTires) {
-                                if (Tire.isValidTire(tire, (long) (widthSlider.getValue() * 1000),
-                                        (long) (heightSlider.getValue() * 1000),
-                                        (long) (distBorderSlider.getValue() * 1000), currentTires,
-                                        (long) (distTireSlider.getValue() * 1000))) {
-                                    validTires.add(tire);
-                                }
-                            }
-
-                            for (Tire tire : validTires) {
-                                tire.draw(gc);
-
-                            }
-
-                            // Actualizar el contador
-                            tireCountLabel.setText("Neumáticos válidos: " + validTires.size());
-                            validTiresLabel.setText("Neumáticos válidos: " + validTires.size());
-
-                            // Calcular la ocupación del contenedor
-                            double totalTireArea = 0;
-                            for (Tire tire : validTires) {
-                                double r = tire.getRadius();
-                                totalTireArea += Math.PI * r * r; // Área de un círculo
+                            // Only render the newest frame, and only when there is a new one
+                            OptimizationRunner.Frame frame = runner.getLatest();
+                            if (frame == null || frame.getVersion() == lastVersion
+                                    || (!frame.isFinished() && now - lastRender < MIN_FRAME_NANOS)) {
+                                return;
                             }
-
-                            double containerArea = widthSlider.getValue() * heightSlider.getValue() * 1000000;
-                            double occupancyPercentage = (totalTireArea / containerArea) * 100;
-
-                            // Actualizar el porcentaje de ocupación
-                            occupancyLabel.setText(String.format("Ocupación: %.2f%% ", occupancyPercentage));
+                            lastVersion = frame.getVersion();
+                            lastRender = now;
+
+                            // Only the areas of tires that changed are repainted
+                            TireLayout currentLayout = frame.getLayout();
+                            BitSet valid = frame.getValid();
+                            layoutRenderer.render(gc, currentLayout, valid);
+                            renderedLayout = currentLayout;
+                            renderedValid = valid;
+                            renderedFinished = frame.isFinished();
+
+                            // Actualizar el contador y el porcentaje de ocupación
+                            tireCountLabel.setText("Neumáticos válidos: " + frame.getValidCount());
+                            validTiresLabel.setText("Neumáticos válidos: " + frame.getValidCount());
+                            occupancyLabel.setText(String.format("Ocupación: %.2f%% ", frame.getOccupancy()));
 
                             // Check if optimization is complete
-                            if (optimizationMethod.isFinished()) {
-                                drawNumber(gc, validTires, (int) newWidth, (int) newHeight,
+                            if (frame.isFinished()) {
+                                drawNumber(gc, validTires(currentLayout, valid), (int) newWidth, (int) newHeight,
                                         (int) distBorderSlider.getValue());
                                 this.stop();
                             }
@@ -411,8 +399,8 @@ public class Main extends Application {
 
                 } catch (IllegalAccessException | IllegalArgumentException | InstantiationException
                         | NoSuchMethodException | SecurityException | InvocationTargetException ex) {
-                    if (optimizationMethod != null) {
-                        optimizationMethod.stop();
+                    if (solver != null) {
+                        solver.stop();
                     }
 
                     ex.printStackTrace();
@@ -429,8 +417,8 @@ public class Main extends Application {
 
             // Agregar un manejador para cuando se cierre la ventana
             primaryStage.setOnCloseRequest(event -> {
-                if (optimizationMethod != null) {
-                    optimizationMethod.stop();
+                if (solver != null) {
+                    solver.stop();
                 }
                 Platform.exit();
             });
@@ -443,8 +431,8 @@ public class Main extends Application {
             // frente
             drawAxes(gc);
         } catch (Exception e) {
-            if (optimizationMethod != null) {
-                optimizationMethod.stop();
+            if (solver != null) {
+                solver.stop();
             }
             e.printStackTrace();
             Platform.exit();
@@ -472,25 +460,13 @@ public class Main extends Application {
         gc.strokeLine(startX + 5, startY + arrowLength - 10, startX, startY + arrowLength);
     }
 
-    // Nueva función para borrar los ejes
-    private void clearAxes(GraphicsContext gc) {
-        double arrowLength = 50; // 5 cm en píxeles (asumiendo 10 píxeles por cm)
-        double startX = 10; // Ajustar la posición de la línea del borde izquierdo
-        double startY = 10; // Ajustar la posición de la línea del borde superior
-
-        gc.setLineWidth(3); // Hacer las flechas más gruesas
-
-        // Eje X
-        gc.setStroke(Color.LIGHTGRAY);
-        gc.strokeLine(startX, startY, startX + arrowLength, startY);
-        gc.strokeLine(startX + arrowLength - 10, startY - 5, startX + arrowLength, startY);
-        gc.strokeLine(startX + arrowLength - 10, startY + 5, startX + arrowLength, startY);
-
-        // Eje Y
-        gc.setStroke(Color.LIGHTGRAY);
-        gc.strokeLine(startX, startY, startX, startY + arrowLength);
-        gc.strokeLine(startX - 5, startY + arrowLength - 10, startX, startY + arrowLength);
-        gc.strokeLine(startX + 5, startY + arrowLength - 10, startX, startY + arrowLength);
+    // Ruedas válidas del layout
+    private static List<Tire> validTires(TireLayout layout, BitSet valid) {
+        List<Tire> tires = new ArrayList<>(valid.cardinality());
+        for (int i = valid.nextSetBit(0); i >= 0; i = valid.nextSetBit(i + 1)) {
+            tires.add(new Tire("Michelin Pilot Sport", layout.getRadius(), layout.getX(i), layout.getY(i)));
+        }
+        return tires;
     }
 
     // Nueva función para dibujar números en las ruedas
@@ -535,6 +511,19 @@ public class Main extends Application {
         coordinatesListView.getItems().setAll(coordinates.toString().split("\n"));
     }
 
+    // Fondo del contenedor con los ejes, y las franjas y esquinas del borde si están activadas
+    private void drawBackground(GraphicsContext gc, double width, double height, double borderDistance,
+            boolean showStripes) {
+        gc.clearRect(0, 0, width, height);
+        gc.setFill(Color.LIGHTGRAY);
+        gc.fillRect(0, 0, width, height);
+        gc.setStroke(Color.BLACK); // Asegurar que el borde sea negro
+        gc.strokeRect(0, 0, width, height);
+        drawDiagonalStripes(gc, width, height, borderDistance, showStripes);
+        drawCornerSquares(gc, width, height, borderDistance, showStripes);
+        drawAxes(gc);
+    }
+
     // Nueva función para dibujar las franjas diagonales
     private void drawDiagonalStripes(GraphicsContext gc, double width, double height, double borderDistance,
             boolean showStripes) {
@@ -1,13 +1,23 @@
 package com.michelin.Optimization;
 
-import java.util.List;
-
-import com.michelin.utils.Tire;
+import com.michelin.utils.PlacementValidator;
+import com.michelin.utils.TireLayout;
 
 public interface AbstractOptimization {
     public void setup();
     public default void run(){};
-    public List<Tire> getResult();
+    // Immutable, safe to keep and to read from another thread. Best layout so far while running
+    public TireLayout getResult();
     public boolean isFinished();
+    // Whether the optimization finished its whole search rather than being cut short by a cancellation or failure
+    public default boolean isComplete(){ return isFinished(); };
     public default void stop(){};
+    // True when the work happens on the optimization's own threads and run() has nothing to do
+    public default boolean runsInBackground(){ return false; };
+    // Limits the next run started by setup(); optimizations that finish in a single step ignore it
+    public default void setBudget(Budget budget){};
+    // getResult() with its valid count and the gap to the area upper bound
+    public default OptimizationResult getBestResult(PlacementValidator validator){
+        return OptimizationResult.of(this, validator);
+    };
 }
@@ -0,0 +1,62 @@
+package com.michelin.Optimization;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limit on the work of one optimization run: wall-clock time, steps, or both,
+ * whichever runs out first. What a step is depends on the optimization (a
+ * Physic iteration, an annealing move, the Physic iterations of all the
+ * simulations of MaxForceOptimization). Zero means no limit.
+ *
+ * The clock starts when the optimization's setup() is called.
+ */
+public final class Budget {
+    public static final Budget UNLIMITED = new Budget(0, 0);
+
+    private final long timeLimitNanos;
+    private final long maxSteps;
+
+    private Budget(long timeLimitNanos, long maxSteps) {
+        if (timeLimitNanos < 0 || maxSteps < 0) {
+            throw new IllegalArgumentException("Budget limits must not be negative");
+        }
+        this.timeLimitNanos = timeLimitNanos;
+        this.maxSteps = maxSteps;
+    }
+
+    public static Budget of(long timeLimit, TimeUnit unit, long maxSteps) {
+        return new Budget(unit.toNanos(timeLimit), maxSteps);
+    }
+
+    public boolean hasTimeLimit() {
+        return timeLimitNanos > 0;
+    }
+
+    public long getTimeLimitNanos() {
+        return timeLimitNanos;
+    }
+
+    public boolean hasStepLimit() {
+        return maxSteps > 0;
+    }
+
+    public long getMaxSteps() {
+        return maxSteps;
+    }
+
+    // Smaller of the step limit and fallback, fallback alone when there is no step limit
+    public long capSteps(long fallback) {
+        return hasStepLimit() ? Math.min(maxSteps, fallback) : fallback;
+    }
+
+    // Whether the time limit has passed for a run started at startNanos (System.nanoTime())
+    public boolean isExpired(long startNanos) {
+        return hasTimeLimit() && System.nanoTime() - startNanos >= timeLimitNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "Budget{time=" + (hasTimeLimit() ? TimeUnit.NANOSECONDS.toMillis(timeLimitNanos) + " ms" : "none")
+                + ", steps=" + (hasStepLimit() ? maxSteps : "none") + '}';
+    }
+}
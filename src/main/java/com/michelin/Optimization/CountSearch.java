@@ -0,0 +1,118 @@
+package com.michelin.Optimization;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decides which tire counts MaxForceOptimization simulates next.
+ *
+ * Feasibility is treated as monotonic in the tire count: once some layout has
+ * k valid tires every count up to k is beaten, and once a count k fails to fit
+ * every count from k upwards is assumed infeasible. Only counts strictly
+ * between both bounds are worth simulating. Probes gallop upwards from the
+ * lower bound (+1, +2, +4, ...) because the area based upper bound is usually
+ * far too optimistic.
+ *
+ * Every count is tried by several independent restarts. A count is only
+ * declared infeasible once all of its restarts ran out without fitting. A
+ * restart also runs out when Physic converges, so how long Physic waits before
+ * calling a layout settled (see Physic.setConvergence) decides how hard a
+ * count is tried before it is ruled out.
+ */
+class CountSearch {
+    private final int restarts;
+    private final int initialLowerBound;
+    private final int initialUpperBound;
+    private final long startTime = System.nanoTime();
+    // Largest number of valid tires reached so far
+    private volatile int lowerBound;
+    // Smallest count known not to fit, exclusive upper end of the search
+    private volatile int upperBound;
+    // Restarts still running and restarts that ran out, per count
+    private final Map<Integer, Integer> running = new HashMap<>();
+    private final Map<Integer, Integer> exhausted = new HashMap<>();
+
+    CountSearch(int lowerBound, int maxCount, int restarts) {
+        this.restarts = Math.max(1, restarts);
+        this.lowerBound = lowerBound;
+        this.upperBound = Math.max(lowerBound, maxCount) + 1;
+        this.initialLowerBound = this.lowerBound;
+        this.initialUpperBound = this.upperBound;
+    }
+
+    // Picks up to slots new counts to simulate, each one taking all its restarts
+    synchronized List<Integer> next(int slots) {
+        List<Integer> counts = new ArrayList<>();
+        for (long step = 1; counts.size() < slots && lowerBound + step < upperBound; step *= 2) {
+            addCount((int) (lowerBound + step), counts);
+        }
+        // Fill remaining slots with the smallest counts not running yet
+        for (int count = lowerBound + 1; counts.size() < slots && count < upperBound; count++) {
+            addCount(count, counts);
+        }
+        return counts;
+    }
+
+    private void addCount(int count, List<Integer> counts) {
+        if (!running.containsKey(count) && !exhausted.containsKey(count)) {
+            running.put(count, restarts);
+            exhausted.put(count, 0);
+            counts.add(count);
+        }
+    }
+
+    // A layout with validTires valid tires exists
+    synchronized void improve(int validTires) {
+        if (validTires > lowerBound) {
+            lowerBound = validTires;
+        }
+    }
+
+    /**
+     * Called once per finished restart. ranOut tells whether the simulation
+     * ended on its own without fitting every tire, or failed, as opposed to
+     * being cancelled because the count got settled.
+     */
+    synchronized void release(int count, boolean ranOut) {
+        int failures = exhausted.merge(count, ranOut ? 1 : 0, Integer::sum);
+        if (failures >= restarts && count > lowerBound && count < upperBound) {
+            upperBound = count;
+        }
+        if (running.merge(count, -1, Integer::sum) <= 0) {
+            running.remove(count);
+        }
+    }
+
+    // Whether simulating count can no longer improve the result
+    boolean isSettled(int count) {
+        return count <= lowerBound || count >= upperBound;
+    }
+
+    synchronized boolean isDone() {
+        return running.isEmpty() && lowerBound + 1 >= upperBound;
+    }
+
+    int getRestarts() {
+        return restarts;
+    }
+
+    int getLowerBound() {
+        return lowerBound;
+    }
+
+    int getUpperBound() {
+        return upperBound;
+    }
+
+    // Counts whose outcome is already known, either beaten or ruled out
+    int getResolvedCounts() {
+        return (lowerBound - initialLowerBound) + (initialUpperBound - upperBound);
+    }
+
+    double getCountsPerSecond() {
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        return seconds > 0 ? getResolvedCounts() / seconds : 0;
+    }
+}
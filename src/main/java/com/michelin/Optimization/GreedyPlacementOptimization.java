@@ -0,0 +1,231 @@
+package com.michelin.Optimization;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+import com.michelin.utils.PlacementValidator;
+import com.michelin.utils.SpatialGrid;
+import com.michelin.utils.TireLayout;
+
+/**
+ * Deterministic bottom-left placement: every new tire goes to the feasible
+ * position with the lowest y, then the lowest x, among the positions touching
+ * two walls, a wall and a tire, or two tires.
+ *
+ * Touching means the centres are exactly minDist = 2 * radius + distTire - 1
+ * apart, the closest PlacementValidator allows. Candidate positions are kept
+ * in a priority queue and generated only around each tire as it is placed.
+ * A candidate that is infeasible once stays infeasible because tires are never
+ * removed, so it is dropped when popped. Feasibility is checked through a
+ * SpatialGrid, which makes the whole build O(n log n).
+ *
+ * The layout is valid by construction and can seed Physic with a limited
+ * number of tires through setMaxTires.
+ */
+public class GreedyPlacementOptimization implements AbstractOptimization {
+    // Tires placed between two looks at the clock
+    private static final int TIME_CHECK_INTERVAL = 1024;
+
+    private final long radius;
+    private final long width;
+    private final long height;
+    private final long distBorder;
+    private final long distTire;
+    private final long minDist;
+    // Allowed range for tire centres
+    private final long minX;
+    private final long maxX;
+    private final long minY;
+    private final long maxY;
+    private int maxTires = Integer.MAX_VALUE;
+    private Budget budget = Budget.UNLIMITED;
+    private long startNanos;
+    private boolean placed;
+    private int count;
+    private long[] x = new long[0];
+    private long[] y = new long[0];
+    private TireLayout layout;
+
+    // Exact tangent point, rounded to whole units when it is checked
+    private static final class Candidate {
+        final double x;
+        final double y;
+
+        Candidate(double x, double y) {
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    public GreedyPlacementOptimization(long radius, long width, long height, long distBorder, long distTire) {
+        this.radius = radius;
+        this.width = width;
+        this.height = height;
+        this.distBorder = distBorder;
+        this.distTire = distTire;
+        this.minDist = 2 * radius + distTire - 1;
+        this.minX = distBorder + radius;
+        this.maxX = width - distBorder - radius;
+        this.minY = distBorder + radius;
+        this.maxY = height - distBorder - radius;
+    }
+
+    // Stops after this many tires, e.g. to seed a simulation with a fixed count
+    public void setMaxTires(int maxTires) {
+        this.maxTires = maxTires;
+    }
+
+    // Steps are placed tires, the lower of the budget and setMaxTires applies
+    @Override
+    public void setBudget(Budget budget) {
+        this.budget = budget;
+    }
+
+    @Override
+    public void setup() {
+        startNanos = System.nanoTime();
+        placed = false;
+        count = 0;
+        x = new long[64];
+        y = new long[64];
+        layout = null;
+    }
+
+    @Override
+    public void run() {
+        if (!placed) {
+            place();
+            placed = true;
+            layout = null;
+        }
+    }
+
+    @Override
+    public TireLayout getResult() {
+        if (layout == null) {
+            layout = new TireLayout(radius, x, y, count);
+        }
+        return layout;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return placed;
+    }
+
+    private void place() {
+        // With minDist <= 0 tires never get too close and every point would take one, the layout stays empty
+        if (minDist <= 0 || minX > maxX || minY > maxY) {
+            return;
+        }
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>((a, b) -> a.y != b.y
+                ? Double.compare(a.y, b.y) : Double.compare(a.x, b.x));
+        candidates.add(new Candidate(minX, minY));
+        candidates.add(new Candidate(maxX, minY));
+        candidates.add(new Candidate(minX, maxY));
+        candidates.add(new Candidate(maxX, maxY));
+
+        // Cells of 2 * minDist, so tires that can touch a common neighbour share a 3x3 block
+        SpatialGrid grid = new SpatialGrid(2 * minDist, width, height, 64);
+        long[] position = new long[2];
+        long tireLimit = budget.capSteps(maxTires);
+        while (!candidates.isEmpty() && count < tireLimit) {
+            Candidate candidate = candidates.poll();
+            if (!round(candidate, grid, position)) {
+                continue;
+            }
+            if (count == x.length) {
+                x = Arrays.copyOf(x, x.length * 2);
+                y = Arrays.copyOf(y, y.length * 2);
+            }
+            int index = count++;
+            x[index] = position[0];
+            y[index] = position[1];
+            grid.insert(index, x[index], y[index]);
+            addTangents(index, grid, candidates);
+            // The layout is valid after every tire, so it can be cut short at any point
+            if (count % TIME_CHECK_INTERVAL == 0 && budget.isExpired(startNanos)) {
+                break;
+            }
+        }
+    }
+
+    // Picks the lowest feasible rounding of the candidate into position
+    private boolean round(Candidate candidate, SpatialGrid grid, long[] position) {
+        long floorX = (long) Math.floor(candidate.x);
+        long floorY = (long) Math.floor(candidate.y);
+        for (long py = floorY; py <= floorY + 1; py++) {
+            for (long px = floorX; px <= floorX + 1; px++) {
+                if (isFeasible(px, py, grid)) {
+                    position[0] = px;
+                    position[1] = py;
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isFeasible(long px, long py, SpatialGrid grid) {
+        if (px < minX || px > maxX || py < minY || py > maxY) {
+            return false;
+        }
+        int cx = grid.cellX(px);
+        int cy = grid.cellY(py);
+        for (int gy = Math.max(0, cy - 1); gy <= Math.min(grid.getRows() - 1, cy + 1); gy++) {
+            for (int gx = Math.max(0, cx - 1); gx <= Math.min(grid.getCols() - 1, cx + 1); gx++) {
+                for (int j = grid.head(gx, gy); j != -1; j = grid.next(j)) {
+                    if (PlacementValidator.tooClose(px - x[j], py - y[j], minDist)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    // Positions touching the new tire and a wall, or the new tire and a neighbour
+    private void addTangents(int index, SpatialGrid grid, PriorityQueue<Candidate> candidates) {
+        double cx = x[index];
+        double cy = y[index];
+        for (long wallX : new long[] { minX, maxX }) {
+            double dy = Math.sqrt((double) minDist * minDist - (cx - wallX) * (cx - wallX));
+            if (!Double.isNaN(dy)) {
+                candidates.add(new Candidate(wallX, cy - dy));
+                candidates.add(new Candidate(wallX, cy + dy));
+            }
+        }
+        for (long wallY : new long[] { minY, maxY }) {
+            double dx = Math.sqrt((double) minDist * minDist - (cy - wallY) * (cy - wallY));
+            if (!Double.isNaN(dx)) {
+                candidates.add(new Candidate(cx - dx, wallY));
+                candidates.add(new Candidate(cx + dx, wallY));
+            }
+        }
+
+        int gridX = grid.cellX(x[index]);
+        int gridY = grid.cellY(y[index]);
+        for (int gy = Math.max(0, gridY - 1); gy <= Math.min(grid.getRows() - 1, gridY + 1); gy++) {
+            for (int gx = Math.max(0, gridX - 1); gx <= Math.min(grid.getCols() - 1, gridX + 1); gx++) {
+                for (int j = grid.head(gx, gy); j != -1; j = grid.next(j)) {
+                    if (j == index) {
+                        continue;
+                    }
+                    double dx = x[j] - cx;
+                    double dy = y[j] - cy;
+                    double distance = Math.sqrt(dx * dx + dy * dy);
+                    if (distance == 0 || distance > 2 * minDist) {
+                        continue;
+                    }
+                    // Both points at minDist from the two centres, either side of the line joining them
+                    double along = distance / 2;
+                    double across = Math.sqrt((double) minDist * minDist - along * along);
+                    double midX = cx + dx / 2;
+                    double midY = cy + dy / 2;
+                    candidates.add(new Candidate(midX - dy / distance * across, midY + dx / distance * across));
+                    candidates.add(new Candidate(midX + dy / distance * across, midY - dx / distance * across));
+                }
+            }
+        }
+    }
+}
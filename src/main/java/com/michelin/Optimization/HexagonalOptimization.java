@@ -1,9 +1,6 @@
 package com.michelin.Optimization;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import com.michelin.utils.Tire;
+import com.michelin.utils.TireLayout;
 //Mario maricon
 public class HexagonalOptimization implements AbstractOptimization {
     private final long radius;
@@ -13,7 +10,7 @@ public class HexagonalOptimization implements AbstractOptimization {
     private final long distTire;
 
 
-    private List<Tire> tires;
+    private TireLayout layout;
     
     public HexagonalOptimization(long radius, long  width, long height, long distBorder, long distTire) {
         this.radius = radius;
@@ -23,51 +20,88 @@ public class HexagonalOptimization implements AbstractOptimization {
         this.distTire = distTire;
     }
 
+    /**
+     * Number of tires in the layout built by this class, without building it.
+     * With the vertical spacing rounded to whole units the diagonal neighbours
+     * are still at least 2 * radius + distTire - 1 apart, so every tire is
+     * valid and this is also the valid count.
+     */
+    public static long capacity(long radius, long width, long height, long distBorder, long distTire) {
+        long horizontalSpacing = 2 * radius + distTire;
+        long verticalSpacing = LatticeMath.hexRowSpacing(radius, distTire);
+        if (horizontalSpacing <= 0 || verticalSpacing <= 0) {
+            return 0;
+        }
+        long numRows = rows(radius, height, distBorder, verticalSpacing);
+        long evenRow = tiresInRow(radius, width, distBorder, horizontalSpacing, 0);
+        long oddRow = tiresInRow(radius, width, distBorder, horizontalSpacing, horizontalSpacing / 2);
+        return (numRows + 1) / 2 * evenRow + numRows / 2 * oddRow;
+    }
+
+    public long capacity() {
+        return capacity(radius, width, height, distBorder, distTire);
+    }
+
+    private static long rows(long radius, long height, long distBorder, long verticalSpacing) {
+        long slots = Math.max(0, (height - distBorder) / verticalSpacing);
+        return Math.min(slots,
+                LatticeMath.slots(distBorder + radius, height - distBorder - radius, verticalSpacing));
+    }
+
+    // Tires in a row shifted by xOffset, limited by the row slots and by the far border
+    private static long tiresInRow(long radius, long width, long distBorder, long horizontalSpacing, long xOffset) {
+        long slots = Math.max(0, (width - distBorder) / horizontalSpacing);
+        return Math.min(slots, LatticeMath.slots(distBorder + radius + xOffset, width - distBorder - radius,
+                horizontalSpacing));
+    }
+
     @Override
     public void setup() {
-        tires = new ArrayList<>();
+        layout = null;
     }
 
+    // The layout is closed-form, it is only built when getResult() asks for it
     @Override
     public void run() {
-        // Calculate effective dimensions accounting for border distance plus radius
-        float effectiveWidth = width - distBorder;
-        float effectiveHeight = height - distBorder;
+    }
 
-        // Calculate spacing between tire centers
-        long horizontalSpacing = 2 * radius + distTire;
-        long verticalSpacing = Math.round(Math.sqrt(3) * (radius + distTire/2.0));
+    @Override
+    public TireLayout getResult() {
+        if (layout == null) {
+            layout = buildLayout();
+        }
+        return layout;
+    }
 
-        // Calculate number of tires that can fit
-        int tiresPerRow = (int)(effectiveWidth / horizontalSpacing);
-        int numRows = (int)(effectiveHeight / verticalSpacing);
+    private TireLayout buildLayout() {
+        long horizontalSpacing = 2 * radius + distTire;
+        long verticalSpacing = LatticeMath.hexRowSpacing(radius, distTire);
+        if (horizontalSpacing <= 0 || verticalSpacing <= 0) {
+            return TireLayout.empty(radius);
+        }
+        long numRows = rows(radius, height, distBorder, verticalSpacing);
+        long[] xs = new long[Math.toIntExact(capacity())];
+        long[] ys = new long[xs.length];
+        int index = 0;
 
-        // Calculate starting positions to center the pattern
-        // Add radius to ensure minimum distance from walls
+        // Start at the border so the first tire touches the margin
         long startX = distBorder + radius;
         long startY = distBorder + radius;
 
         // Create hexagonal arrangement
-        for (int row = 0; row < numRows; row++) {
+        for (long row = 0; row < numRows; row++) {
             // Offset every other row by half the horizontal spacing
-            long xOffset = (long) ((row % 2) * (horizontalSpacing / 2));
-            
-            for (int col = 0; col < tiresPerRow; col++) {
+            long xOffset = (row % 2) * (horizontalSpacing / 2);
+            long tiresInRow = tiresInRow(radius, width, distBorder, horizontalSpacing, xOffset);
+            for (long col = 0; col < tiresInRow; col++) {
                 long x = startX + col * horizontalSpacing + xOffset;
                 long y = startY + row * verticalSpacing;
-                
-                // Only add tire if it fits within the effective area
-                if (x + radius <= width - (distBorder ) && 
-                    y + radius <= height - (distBorder)) {
-                    tires.add(new Tire("Michelin Pilot Sport", radius, x, y));
-                }
+                xs[index] = x;
+                ys[index] = y;
+                index++;
             }
         }
-    }
-
-    @Override
-    public List<Tire> getResult() {
-        return tires;
+        return new TireLayout(radius, xs, ys);
     }
 
     @Override
@@ -0,0 +1,162 @@
+package com.michelin.Optimization;
+
+import com.michelin.utils.TireLayout;
+
+/**
+ * Stacks rows of tires in bands that are either square packed (every row
+ * aligned, rows 2 * radius + distTire - 1 apart) or hexagonal packed (every
+ * other row shifted by half a spacing, rows closer together). A shifted row
+ * may hold one tire less, so the best layout usually is a square band with
+ * just enough hexagonal row switches to fit the leftover strip.
+ *
+ * With s the gap between two aligned rows and v the gap between an aligned
+ * and a shifted row, a layout with a aligned gaps and b switches needs
+ * a * s + b * v of height and holds a + b + 1 rows, of which (b + 1) / 2 are
+ * shifted at best. The search over band heights therefore reduces to trying
+ * every b with the largest a that still fits, in both orientations.
+ */
+public class HybridBandOptimization implements AbstractOptimization {
+    private final long radius;
+    private final long width;
+    private final long height;
+    private final long distBorder;
+    private final long distTire;
+    private boolean searched;
+    private Bands best;
+    private TireLayout layout;
+
+    // Rows along the x axis of the possibly transposed container
+    private static final class Bands {
+        final boolean transposed;
+        final long spacing;
+        final long alignedGap;
+        final long switchGap;
+        final long alignedGaps;
+        final long switches;
+        final long tiresPerRow;
+        final long tiresPerShiftedRow;
+        final long count;
+
+        Bands(boolean transposed, long spacing, long alignedGap, long switchGap, long alignedGaps, long switches,
+                long tiresPerRow, long tiresPerShiftedRow) {
+            this.transposed = transposed;
+            this.spacing = spacing;
+            this.alignedGap = alignedGap;
+            this.switchGap = switchGap;
+            this.alignedGaps = alignedGaps;
+            this.switches = switches;
+            this.tiresPerRow = tiresPerRow;
+            this.tiresPerShiftedRow = tiresPerShiftedRow;
+            long shiftedRows = (switches + 1) / 2;
+            this.count = (alignedGaps + switches + 1 - shiftedRows) * tiresPerRow + shiftedRows * tiresPerShiftedRow;
+        }
+    }
+
+    public HybridBandOptimization(long radius, long width, long height, long distBorder, long distTire) {
+        this.radius = radius;
+        this.width = width;
+        this.height = height;
+        this.distBorder = distBorder;
+        this.distTire = distTire;
+    }
+
+    // Number of valid tires of the best banded layout, without building it
+    public static long capacity(long radius, long width, long height, long distBorder, long distTire) {
+        Bands bands = search(radius, width, height, distBorder, distTire);
+        return bands == null ? 0 : bands.count;
+    }
+
+    public long capacity() {
+        return capacity(radius, width, height, distBorder, distTire);
+    }
+
+    private static Bands search(long radius, long width, long height, long distBorder, long distTire) {
+        if (2 * radius + distTire <= 0) {
+            return null;
+        }
+        Bands rows = search(false, radius, width, height, distBorder, distTire);
+        Bands columns = search(true, radius, height, width, distBorder, distTire);
+        if (rows == null || (columns != null && columns.count > rows.count)) {
+            return columns;
+        }
+        return rows;
+    }
+
+    private static Bands search(boolean transposed, long radius, long rowLength, long rowsLength, long distBorder,
+            long distTire) {
+        long spacing = 2 * radius + distTire;
+        long minDist = spacing - 1;
+        long alignedGap = Math.max(1, minDist);
+        long switchGap = LatticeMath.minRowSpacing(spacing / 2, minDist);
+        long first = distBorder + radius;
+        long span = rowsLength - distBorder - radius - first;
+        if (span < 0) {
+            return null;
+        }
+        long tiresPerRow = LatticeMath.slots(first, rowLength - distBorder - radius, spacing);
+        long tiresPerShiftedRow = LatticeMath.slots(first + spacing / 2, rowLength - distBorder - radius, spacing);
+
+        Bands best = null;
+        for (long switches = 0; switches * switchGap <= span; switches++) {
+            long alignedGaps = (span - switches * switchGap) / alignedGap;
+            Bands bands = new Bands(transposed, spacing, alignedGap, switchGap, alignedGaps, switches, tiresPerRow,
+                    tiresPerShiftedRow);
+            if (best == null || bands.count > best.count) {
+                best = bands;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public void setup() {
+        searched = false;
+        best = null;
+        layout = null;
+    }
+
+    @Override
+    public void run() {
+        if (!searched) {
+            best = search(radius, width, height, distBorder, distTire);
+            searched = true;
+        }
+    }
+
+    @Override
+    public TireLayout getResult() {
+        if (layout == null && best != null) {
+            layout = buildLayout(best);
+        }
+        return layout == null ? TireLayout.empty(radius) : layout;
+    }
+
+    // One square band with all the aligned gaps, then rows alternating between shifted and aligned
+    private TireLayout buildLayout(Bands bands) {
+        long[] xs = new long[Math.toIntExact(bands.count)];
+        long[] ys = new long[xs.length];
+        int index = 0;
+        long first = distBorder + radius;
+        long across = first;
+        for (long row = 0; row <= bands.alignedGaps + bands.switches; row++) {
+            boolean shifted = row > bands.alignedGaps && (row - bands.alignedGaps) % 2 == 1;
+            if (row > 0) {
+                across += row <= bands.alignedGaps ? bands.alignedGap : bands.switchGap;
+            }
+            long tiresInRow = shifted ? bands.tiresPerShiftedRow : bands.tiresPerRow;
+            long along = first + (shifted ? bands.spacing / 2 : 0);
+            for (long col = 0; col < tiresInRow; col++) {
+                long u = along + col * bands.spacing;
+                xs[index] = bands.transposed ? across : u;
+                ys[index] = bands.transposed ? u : across;
+                index++;
+            }
+        }
+        return new TireLayout(radius, xs, ys);
+    }
+
+    @Override
+    public boolean isFinished() {
+        return searched;
+    }
+}
@@ -0,0 +1,153 @@
+package com.michelin.Optimization;
+
+import java.util.SplittableRandom;
+
+import com.michelin.utils.SpatialGrid;
+import com.michelin.utils.TireLayout;
+
+/**
+ * Starting positions for Physic. Implementations fill x and y (one entry per
+ * tire) and must only draw random numbers from the generator they are given,
+ * so a simulation started with the same seed repeats exactly.
+ */
+@FunctionalInterface
+public interface InitialLayout {
+    // Darts thrown per tire by poissonDisk before giving up on the spacing
+    int POISSON_ATTEMPTS = 30;
+
+    void place(long[] x, long[] y, long tireRadius, long width, long height, long distBorder, long distTire,
+            SplittableRandom random);
+
+    // Uniformly random centres inside the border, like the original setup
+    static InitialLayout uniform() {
+        return (x, y, tireRadius, width, height, distBorder, distTire, random) -> {
+            for (int i = 0; i < x.length; i++) {
+                x[i] = (long) (random.nextDouble() * (width - 2 * distBorder) + distBorder);
+                y[i] = (long) (random.nextDouble() * (height - 2 * distBorder) + distBorder);
+            }
+        };
+    }
+
+    /**
+     * Hexagonal lattice sized so the tires spread over the whole area allowed
+     * by the border, each moved by up to jitter times the lattice spacing.
+     */
+    static InitialLayout jitteredHex(double jitter) {
+        return (x, y, tireRadius, width, height, distBorder, distTire, random) -> {
+            int count = x.length;
+            if (count == 0) {
+                return;
+            }
+            double left = distBorder + tireRadius;
+            double top = distBorder + tireRadius;
+            double areaWidth = Math.max(1, width - 2.0 * left);
+            double areaHeight = Math.max(1, height - 2.0 * top);
+            double spacing = Math.sqrt(2 * areaWidth * areaHeight / (Math.sqrt(3) * count));
+            double rowSpacing = spacing * Math.sqrt(3) / 2;
+            int perRow = Math.max(1, (int) Math.ceil(areaWidth / spacing));
+            int rows = (count + perRow - 1) / perRow;
+            double rowGap = rows > 1 ? Math.min(rowSpacing, areaHeight / (rows - 1)) : 0;
+            for (int i = 0; i < count; i++) {
+                int row = i / perRow;
+                int col = i % perRow;
+                double px = left + (col + (row % 2) * 0.5) * spacing
+                        + (random.nextDouble() * 2 - 1) * jitter * spacing;
+                double py = top + row * rowGap + (random.nextDouble() * 2 - 1) * jitter * spacing;
+                x[i] = (long) Math.max(distBorder, Math.min(width - distBorder, px));
+                y[i] = (long) Math.max(distBorder, Math.min(height - distBorder, py));
+            }
+        };
+    }
+
+    /**
+     * Random centres at least the spacing of an even spread apart where
+     * possible (dart throwing on a SpatialGrid). A tire that finds no free
+     * spot after POISSON_ATTEMPTS darts keeps its last dart.
+     */
+    static InitialLayout poissonDisk() {
+        return (x, y, tireRadius, width, height, distBorder, distTire, random) -> {
+            int count = x.length;
+            if (count == 0) {
+                return;
+            }
+            double areaWidth = Math.max(1, width - 2 * distBorder);
+            double areaHeight = Math.max(1, height - 2 * distBorder);
+            // About 70% of the hexagonal spacing for count tires, the usual reach of dart throwing
+            long spacing = Math.max(1,
+                    (long) (0.7 * Math.sqrt(2 * areaWidth * areaHeight / (Math.sqrt(3) * count))));
+            SpatialGrid grid = new SpatialGrid(spacing, width, height, count);
+            for (int i = 0; i < count; i++) {
+                for (int attempt = 0; attempt < POISSON_ATTEMPTS; attempt++) {
+                    x[i] = (long) (random.nextDouble() * areaWidth + distBorder);
+                    y[i] = (long) (random.nextDouble() * areaHeight + distBorder);
+                    if (isFree(x, y, i, spacing, grid)) {
+                        break;
+                    }
+                }
+                grid.insert(i, x[i], y[i]);
+            }
+        };
+    }
+
+    /**
+     * Positions of an existing layout, e.g. the result of another
+     * AbstractOptimization. Extra tires beyond the layout are placed uniformly.
+     */
+    static InitialLayout fromLayout(TireLayout layout) {
+        return (x, y, tireRadius, width, height, distBorder, distTire, random) -> {
+            int copied = Math.min(x.length, layout.size());
+            for (int i = 0; i < copied; i++) {
+                x[i] = layout.getX(i);
+                y[i] = layout.getY(i);
+            }
+            if (copied < x.length) {
+                long[] restX = new long[x.length - copied];
+                long[] restY = new long[restX.length];
+                uniform().place(restX, restY, tireRadius, width, height, distBorder, distTire, random);
+                System.arraycopy(restX, 0, x, copied, restX.length);
+                System.arraycopy(restY, 0, y, copied, restY.length);
+            }
+        };
+    }
+
+    /**
+     * Starts from the result of the optimization, which is run once on first
+     * use and shared by every simulation using this layout. Meant for
+     * optimizations that do their work in run().
+     */
+    static InitialLayout fromOptimization(AbstractOptimization optimization) {
+        return new InitialLayout() {
+            private TireLayout layout;
+
+            @Override
+            public synchronized void place(long[] x, long[] y, long tireRadius, long width, long height,
+                    long distBorder, long distTire, SplittableRandom random) {
+                if (layout == null) {
+                    optimization.setup();
+                    do {
+                        optimization.run();
+                    } while (!optimization.isFinished());
+                    layout = optimization.getResult();
+                }
+                fromLayout(layout).place(x, y, tireRadius, width, height, distBorder, distTire, random);
+            }
+        };
+    }
+
+    private static boolean isFree(long[] x, long[] y, int i, long spacing, SpatialGrid grid) {
+        int cx = grid.cellX(x[i]);
+        int cy = grid.cellY(y[i]);
+        for (int gy = Math.max(0, cy - 1); gy <= Math.min(grid.getRows() - 1, cy + 1); gy++) {
+            for (int gx = Math.max(0, cx - 1); gx <= Math.min(grid.getCols() - 1, cx + 1); gx++) {
+                for (int j = grid.head(gx, gy); j != -1; j = grid.next(j)) {
+                    long dx = x[i] - x[j];
+                    long dy = y[i] - y[j];
+                    if (dx * dx + dy * dy < spacing * spacing) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+}
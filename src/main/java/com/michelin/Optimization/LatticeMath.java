@@ -0,0 +1,66 @@
+package com.michelin.Optimization;
+
+// Integer arithmetic shared by the lattice layouts to count positions without building them
+final class LatticeMath {
+    private LatticeMath() {
+    }
+
+    /**
+     * Area estimate of the most tires that fit: the area inside the border
+     * divided by the area of a circle of radius + distTire / 2 around each
+     * tire. MaxForceOptimization searches up to it and results report their
+     * gap to it.
+     */
+    static int areaUpperBound(long radius, long width, long height, long distBorder, long distTire) {
+        if (width <= 2 * distBorder || height <= 2 * distBorder) {
+            return 0;
+        }
+        double availableArea = (width - 2 * distBorder) * (height - 2 * distBorder);
+        double tireArea = Math.PI * Math.pow(radius + distTire / 2, 2);
+        if (tireArea <= 0) {
+            return 0;
+        }
+        return (int) Math.round(availableArea / tireArea);
+    }
+
+    // Number of positions first, first + spacing, ... that are <= last
+    static long slots(long first, long last, long spacing) {
+        if (spacing <= 0 || first > last) {
+            return 0;
+        }
+        return (last - first) / spacing + 1;
+    }
+
+    // Vertical distance between the offset rows of a hexagonal lattice with the given horizontal spacing
+    static long hexRowSpacing(long radius, long distTire) {
+        return Math.round(Math.sqrt(3) * (radius + distTire / 2.0));
+    }
+
+    /**
+     * Smallest row spacing that keeps alternating rows valid when the tires
+     * of neighbouring rows are dx apart horizontally and tires must be at
+     * least minDist apart. Rows two apart are aligned, so they need 2 * v >= minDist.
+     */
+    static long minRowSpacing(long dx, long minDist) {
+        long spacing = 1;
+        if (minDist > 0) {
+            spacing = Math.max(spacing, (minDist + 1) / 2);
+            if (dx < minDist) {
+                spacing = Math.max(spacing, ceilSqrt(minDist * minDist - dx * dx));
+            }
+        }
+        return spacing;
+    }
+
+    // Smallest v >= 0 with v * v >= value
+    static long ceilSqrt(long value) {
+        long root = (long) Math.sqrt((double) value);
+        while (root * root < value) {
+            root++;
+        }
+        while (root > 0 && (root - 1) * (root - 1) >= value) {
+            root--;
+        }
+        return root;
+    }
+}
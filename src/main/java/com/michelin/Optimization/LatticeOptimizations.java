@@ -0,0 +1,23 @@
+package com.michelin.Optimization;
+
+// Factories for the lattice optimizations other optimizers start from
+final class LatticeOptimizations {
+    private LatticeOptimizations() {
+    }
+
+    /**
+     * The better of HybridBandOptimization and LatticeSearchOptimization,
+     * already run. Both are valid by construction and include the square and
+     * hexagonal grids, so they are compared by capacity without building tires.
+     */
+    static AbstractOptimization bestLattice(long radius, long width, long height, long distBorder, long distTire) {
+        long hybrid = HybridBandOptimization.capacity(radius, width, height, distBorder, distTire);
+        long lattice = LatticeSearchOptimization.capacity(radius, width, height, distBorder, distTire);
+        AbstractOptimization best = hybrid >= lattice
+                ? new HybridBandOptimization(radius, width, height, distBorder, distTire)
+                : new LatticeSearchOptimization(radius, width, height, distBorder, distTire);
+        best.setup();
+        best.run();
+        return best;
+    }
+}
@@ -0,0 +1,167 @@
+package com.michelin.Optimization;
+
+import java.util.stream.IntStream;
+
+import com.michelin.utils.TireLayout;
+
+/**
+ * Searches a family of row lattices for the one that fits the most tires.
+ * Every lattice has rows of tires spaced 2 * radius + distTire apart or more
+ * (the stretch), and every other row is shifted by some amount between zero
+ * (square grid) and half the spacing (hexagonal grid). The rows are packed as
+ * close as the shift allows. Both orientations and both choices of shifted
+ * rows are tried. Candidates are only counted with closed-form formulas, in
+ * parallel, and the layout of the winner is built when getResult() asks.
+ *
+ * The square and hexagonal layouts are members of the family, so the result
+ * never has fewer tires than SquareGridOptimization or HexagonalOptimization.
+ */
+public class LatticeSearchOptimization implements AbstractOptimization {
+    // Row shifts tried between 0 and half the horizontal spacing
+    private static final int SHIFT_STEPS = 32;
+    // Stretches tried between 0 and one horizontal spacing
+    private static final int STRETCH_STEPS = 32;
+    private static final int CANDIDATES = 2 * 2 * (STRETCH_STEPS + 1) * (SHIFT_STEPS + 1);
+
+    private final long radius;
+    private final long width;
+    private final long height;
+    private final long distBorder;
+    private final long distTire;
+    private boolean searched;
+    private Lattice best;
+    private TireLayout layout;
+
+    // One member of the family, with its rows along the x axis of the possibly transposed container
+    private static final class Lattice {
+        final int index;
+        final boolean transposed;
+        final boolean shiftEvenRows;
+        final long horizontalSpacing;
+        final long verticalSpacing;
+        final long shift;
+        final long rows;
+        final long tiresPerRow;
+        final long tiresPerShiftedRow;
+        final long count;
+
+        Lattice(int index, boolean transposed, boolean shiftEvenRows, long horizontalSpacing, long verticalSpacing,
+                long shift, long rows, long tiresPerRow, long tiresPerShiftedRow) {
+            this.index = index;
+            this.transposed = transposed;
+            this.shiftEvenRows = shiftEvenRows;
+            this.horizontalSpacing = horizontalSpacing;
+            this.verticalSpacing = verticalSpacing;
+            this.shift = shift;
+            this.rows = rows;
+            this.tiresPerRow = tiresPerRow;
+            this.tiresPerShiftedRow = tiresPerShiftedRow;
+            long shiftedRows = shiftEvenRows ? (rows + 1) / 2 : rows / 2;
+            this.count = (rows - shiftedRows) * tiresPerRow + shiftedRows * tiresPerShiftedRow;
+        }
+
+        boolean isShifted(long row) {
+            return (row % 2 == 0) == shiftEvenRows;
+        }
+    }
+
+    public LatticeSearchOptimization(long radius, long width, long height, long distBorder, long distTire) {
+        this.radius = radius;
+        this.width = width;
+        this.height = height;
+        this.distBorder = distBorder;
+        this.distTire = distTire;
+    }
+
+    // Number of valid tires of the best lattice, without building it
+    public static long capacity(long radius, long width, long height, long distBorder, long distTire) {
+        Lattice lattice = search(radius, width, height, distBorder, distTire);
+        return lattice == null ? 0 : lattice.count;
+    }
+
+    public long capacity() {
+        return capacity(radius, width, height, distBorder, distTire);
+    }
+
+    private static Lattice search(long radius, long width, long height, long distBorder, long distTire) {
+        if (2 * radius + distTire <= 0) {
+            return null;
+        }
+        // Ties go to the lowest index so the result does not depend on the thread schedule
+        return IntStream.range(0, CANDIDATES).parallel()
+                .mapToObj(index -> evaluate(index, radius, width, height, distBorder, distTire))
+                .reduce(null, (a, b) -> a == null || (b != null
+                        && (b.count > a.count || (b.count == a.count && b.index < a.index))) ? b : a);
+    }
+
+    private static Lattice evaluate(int index, long radius, long width, long height, long distBorder,
+            long distTire) {
+        int shiftStep = index % (SHIFT_STEPS + 1);
+        int rest = index / (SHIFT_STEPS + 1);
+        int stretchStep = rest % (STRETCH_STEPS + 1);
+        rest /= STRETCH_STEPS + 1;
+        boolean shiftEvenRows = rest % 2 == 1;
+        boolean transposed = rest / 2 == 1;
+
+        long rowLength = transposed ? height : width;
+        long rowsLength = transposed ? width : height;
+        long minDist = 2 * radius + distTire - 1;
+        long horizontalSpacing = 2 * radius + distTire + (2 * radius + distTire) * stretchStep / STRETCH_STEPS;
+        long shift = horizontalSpacing / 2 * shiftStep / SHIFT_STEPS;
+        long verticalSpacing = LatticeMath.minRowSpacing(Math.min(shift, horizontalSpacing - shift), minDist);
+
+        long first = distBorder + radius;
+        return new Lattice(index, transposed, shiftEvenRows, horizontalSpacing, verticalSpacing, shift,
+                LatticeMath.slots(first, rowsLength - distBorder - radius, verticalSpacing),
+                LatticeMath.slots(first, rowLength - distBorder - radius, horizontalSpacing),
+                LatticeMath.slots(first + shift, rowLength - distBorder - radius, horizontalSpacing));
+    }
+
+    @Override
+    public void setup() {
+        searched = false;
+        best = null;
+        layout = null;
+    }
+
+    @Override
+    public void run() {
+        if (!searched) {
+            best = search(radius, width, height, distBorder, distTire);
+            searched = true;
+        }
+    }
+
+    @Override
+    public TireLayout getResult() {
+        if (layout == null && best != null) {
+            layout = buildLayout(best);
+        }
+        return layout == null ? TireLayout.empty(radius) : layout;
+    }
+
+    private TireLayout buildLayout(Lattice lattice) {
+        long[] xs = new long[Math.toIntExact(lattice.count)];
+        long[] ys = new long[xs.length];
+        int index = 0;
+        long first = distBorder + radius;
+        for (long row = 0; row < lattice.rows; row++) {
+            boolean shifted = lattice.isShifted(row);
+            long tiresInRow = shifted ? lattice.tiresPerShiftedRow : lattice.tiresPerRow;
+            long along = first + (shifted ? lattice.shift : 0);
+            long across = first + row * lattice.verticalSpacing;
+            for (long col = 0; col < tiresInRow; col++) {
+                long u = along + col * lattice.horizontalSpacing;
+                xs[index] = lattice.transposed ? across : u;
+                ys[index] = lattice.transposed ? u : across;
+                index++;
+            }
+        }
+        return new TireLayout(radius, xs, ys);
+    }
+
+    @Override
+    public boolean isFinished() {
+        return searched;
+    }
+}
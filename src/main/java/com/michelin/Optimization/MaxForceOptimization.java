@@ -1,15 +1,16 @@
 package com.michelin.Optimization;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
+import java.util.SplittableRandom;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
-import com.michelin.utils.Tire;
+import com.michelin.utils.LayoutBuffer;
+import com.michelin.utils.RunScope;
+import com.michelin.utils.SolverPool;
+import com.michelin.utils.TireLayout;
 
 public class MaxForceOptimization implements AbstractOptimization {
 
@@ -19,22 +20,30 @@ public class MaxForceOptimization implements AbstractOptimization {
     private final long distBorder;
     private final long distTire;
 
-    private final ConcurrentHashMap<Integer, List<Tire>> bestConfiguration;
+    private final ConcurrentHashMap<Integer, TireLayout> bestConfiguration;
     private final ConcurrentHashMap<Integer, Integer> ValidTires;
-    private ExecutorService executor = null;
-    private final AtomicBoolean isRunning = new AtomicBoolean(true);
-    private final AtomicInteger remainingThreads = new AtomicInteger(0);
+    // Simulations of the current run, on the pool shared by every run
+    private volatile RunScope scope;
+    private final int poolSize = SolverPool.parallelism();
+    private int restarts = DEFAULT_RESTARTS;
+    private long seed = ThreadLocalRandom.current().nextLong();
+    private InitialLayout initialLayout = InitialLayout.jitteredHex(DEFAULT_JITTER);
+    private CountSearch search;
+    private Budget budget = Budget.UNLIMITED;
+    // Physic steps of every simulation of the current run, for the step budget
+    private final AtomicLong steps = new AtomicLong();
 
-    
+    // Independent random starts simulated for every tire count
+    public static final int DEFAULT_RESTARTS = 4;
+    // Jitter of the default starting lattice, as a fraction of its spacing
+    public static final double DEFAULT_JITTER = 0.1;
+
+    // Physic steps a simulation runs before adding them to the shared step count
+    private static final int STEP_REPORT_INTERVAL = 256;
+
+    // Theoretical maximum from the areas, see LatticeMath.areaUpperBound
     private int getMaxWheelCount() {
-        // Calculate available area by subtracting border area
-        double availableArea = (containerWidth - 2*distBorder) * (containerHeight - 2*distBorder);
-        
-        // Calculate area of one tire including spacing (as a circle)
-        double tireArea = Math.PI * Math.pow(tireRadius + distTire/2, 2);
-        
-        // Divide total area by area of one tire to get theoretical maximum
-        return (int) Math.round(availableArea / tireArea);
+        return LatticeMath.areaUpperBound(tireRadius, containerWidth, containerHeight, distBorder, distTire);
     }
 
     public MaxForceOptimization(long tireRadius, long containerWidth, long containerHeight, long distBorder,
@@ -49,42 +58,73 @@ public class MaxForceOptimization implements AbstractOptimization {
 
     }
 
+    public void setRestarts(int restarts) {
+        this.restarts = restarts;
+    }
+
+    /**
+     * Base seed of the run. Every simulation gets its own seed derived from
+     * it, the count and the restart, so a single simulation can be replayed.
+     * Which counts get simulated still depends on thread timing.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Steps are Physic iterations summed over all simulations. When the time
+     * or the steps run out the run is cancelled; every simulation ends within
+     * one step and getResult() keeps the best layout found until then.
+     */
+    @Override
+    public void setBudget(Budget budget) {
+        this.budget = budget;
+    }
+
+    public void setInitialLayout(InitialLayout initialLayout) {
+        this.initialLayout = initialLayout;
+    }
+
+    static long simulationSeed(long seed, int count, int restart) {
+        return new SplittableRandom(seed ^ ((long) count << 32 | restart)).nextLong();
+    }
+
+    // Tire counts settled per second since setup, to size the pool
+    public double getCountsPerSecond() {
+        return search == null ? 0 : search.getCountsPerSecond();
+    }
+
+    // Stores the better lattice layout as the starting best result and returns its valid count
     private int bestBasicMethod() {
-        // Try square grid optimization
-        AbstractOptimization squareOptimization = new SquareGridOptimization(tireRadius, containerWidth,
-                containerHeight, distBorder, distTire);
-        squareOptimization.setup();
-        squareOptimization.run();
-        final List<Tire> squareResult = squareOptimization.getResult();
-        int squareValidTires = (int) squareResult.stream()
-                .filter(tire -> Tire.isValidTire(tire, containerWidth, containerHeight, distBorder, squareResult, distTire))
-                .count();
-        squareOptimization.stop();
-
-        // Try hexagonal optimization
-        AbstractOptimization hexOptimization = new HexagonalOptimization(tireRadius, containerWidth, containerHeight, distBorder,
-                distTire);
-        hexOptimization.setup();
-        hexOptimization.run();
-        final List<Tire> hexResult = hexOptimization.getResult();
-        int hexagonalValidTires = (int) hexResult.stream()
-                .filter(tire -> Tire.isValidTire(tire, containerWidth, containerHeight, distBorder, hexResult, distTire))
-                .count();
-        hexOptimization.stop();
-
-        return Math.max(squareValidTires, hexagonalValidTires);
+        TireLayout basic = LatticeOptimizations.bestLattice(tireRadius, containerWidth, containerHeight, distBorder, distTire)
+                .getResult();
+        int best = basic.size();
+        this.ValidTires.put(best, best);
+        this.bestConfiguration.put(best, basic);
+        return best;
     }
 
+    /**
+     * Starts a new run. The simulations of a previous run that was not
+     * stopped are cancelled first; they end within one step and leave the
+     * shared pool to this run.
+     */
     @Override
     public void setup() {
-        if (this.executor != null) {
-            this.executor.shutdown();
+        if (this.scope != null) {
+            this.scope.shutdown();
+        }
+        RunScope newScope = RunScope.open();
+        if (budget.hasTimeLimit()) {
+            newScope.setTimeout(budget.getTimeLimitNanos(), TimeUnit.NANOSECONDS);
         }
-        isRunning.set(true);
-        this.executor = java.util.concurrent.Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-            this.stop();
-        }));
+        newScope.setOnTaskDone(() -> scheduleCounts(newScope));
+        this.scope = newScope;
+        this.steps.set(0);
         this.bestConfiguration.clear();
         this.ValidTires.clear();
 
@@ -92,106 +132,159 @@ public class MaxForceOptimization implements AbstractOptimization {
         int maxWheelCount = getMaxWheelCount();
         System.out.println("Min wheel count: " + minWheelCount);
         System.out.println("Max wheel count: " + maxWheelCount);
-        for (int i = minWheelCount; i <= maxWheelCount; i++) {
-            remainingThreads.incrementAndGet();
-            final int threadIndex = i - minWheelCount;
-
-            this.bestConfiguration.put(threadIndex, new ArrayList<>());
-            this.ValidTires.put(threadIndex, 0);
-            executor.execute(() -> {
-                try {
-                    Physic physic = new Physic(tireRadius, containerWidth, containerHeight, distBorder, distTire,
-                            300_000, threadIndex + minWheelCount);
-                    physic.setup();
-                    System.out.println("Thread " + threadIndex + " started");
-                    while (!physic.isFinished() && isRunning.get()) {
-                        physic.run();
-                        List<Tire> result = physic.getResult();
-                        int validTires = (int) result.stream().filter(tire -> Tire.isValidTire(tire, containerWidth,
-                                containerHeight, distBorder, result, distTire)).count();
-                        if (validTires >= this.ValidTires.get(threadIndex)) {
-                            this.ValidTires.put(threadIndex, validTires);
-                            this.bestConfiguration.put(threadIndex, result);
-                        }
+        System.out.println("Seed: " + seed);
+        this.search = new CountSearch(minWheelCount, maxWheelCount, restarts);
+        scheduleCounts(newScope);
+    }
+
+    // Keeps the pool busy with the restarts of the counts the search wants to try next
+    private synchronized void scheduleCounts(RunScope runScope) {
+        if (runScope != scope || runScope.isCancelled()) {
+            return;
+        }
+        CountSearch search = this.search;
+        int freeSlots = poolSize - runScope.getActiveTasks();
+        int counts = (freeSlots + search.getRestarts() - 1) / search.getRestarts();
+        for (int count : search.next(counts)) {
+            for (int restart = 0; restart < search.getRestarts(); restart++) {
+                final int restartIndex = restart;
+                runScope.fork(() -> simulateCount(runScope, search, count, restartIndex));
+            }
+        }
+        if (search.isDone()) {
+            System.out.println("Search finished, best count: " + search.getLowerBound());
+        }
+    }
+
+    // Exceptions are left to the RunScope, which keeps the first one for isFinished() and stop()
+    private void simulateCount(RunScope runScope, CountSearch search, int count, int restart) {
+        // A restart that throws counts as ran out, so its count can still be resolved
+        boolean ranOut = true;
+        try {
+            Physic physic = new Physic(tireRadius, containerWidth, containerHeight, distBorder, distTire,
+                    300_000, count);
+            physic.setSeed(simulationSeed(seed, count, restart));
+            physic.setInitialLayout(initialLayout);
+            physic.setup();
+            System.out.println("Count " + count + " restart " + restart + " started, seed " + physic.getSeed());
+            int bestValid = 0;
+            int unreportedSteps = 0;
+            // Reused for every improvement, offerConfiguration copies out the layouts it keeps
+            LayoutBuffer reading = new LayoutBuffer();
+            // Stop as soon as any restart made this count irrelevant
+            while (!physic.isFinished() && !runScope.isCancelled() && !search.isSettled(count)) {
+                physic.run();
+                if (++unreportedSteps == STEP_REPORT_INTERVAL) {
+                    unreportedSteps = 0;
+                    long total = steps.addAndGet(STEP_REPORT_INTERVAL);
+                    if (budget.hasStepLimit() && total >= budget.getMaxSteps()) {
+                        runScope.shutdown();
                     }
-                    System.out.println("Thread " + threadIndex + " finished");
-                    System.out.println("--------------------------------");
-                    physic.stop();
-                } catch (Exception e) {
-                    System.out.println("Thread " + threadIndex + " finished with error: " + e.getMessage());
-                } finally {
-                    remainingThreads.decrementAndGet();
-                    System.out.println("Remaining threads: " + remainingThreads.get());
                 }
-
-            });
+                // Only read the layout when the count improves
+                int validTires = physic.validCount();
+                if (validTires > bestValid) {
+                    bestValid = validTires;
+                    physic.readLayout(reading);
+                    if (runScope != scope) {
+                        // A newer run started, its results must not mix with this one
+                        break;
+                    }
+                    offerConfiguration(count, validTires, reading);
+                    search.improve(validTires);
+                }
+            }
+            steps.addAndGet(unreportedSteps);
+            ranOut = physic.isFinished() && bestValid < count;
+            System.out.println("Count " + count + " restart " + restart + " finished: " + physic.getStopReason()
+                    + " after " + physic.getIteration() + " steps, search range (" + search.getLowerBound() + ", "
+                    + search.getUpperBound() + ")");
+            System.out.println("--------------------------------");
+            physic.stop();
+        } finally {
+            search.release(count, ranOut);
+            System.out.println(String.format("Progress: %d counts resolved (%.2f counts/s)",
+                    search.getResolvedCounts(), search.getCountsPerSecond()));
         }
     }
 
+    // Restarts of the same count share one entry, keep whichever has more valid tires.
+    // Only the layout that is kept is copied out of the buffer
+    private void offerConfiguration(int count, int validTires, LayoutBuffer layout) {
+        this.ValidTires.compute(count, (key, current) -> {
+            if (current != null && current >= validTires) {
+                return current;
+            }
+            this.bestConfiguration.put(key, layout.toLayout());
+            return validTires;
+        });
+    }
+
     @Override
-    public List<Tire> getResult() {
+    public TireLayout getResult() {
         // Get the entry with the maximum number of valid tires from ValidTires map
-        // This finds the thread/configuration that produced the most valid tire
+        // This finds the count/configuration that produced the most valid tire
         // placements
         try {
-            List<Tire> result = this.bestConfiguration.get(
+            TireLayout result = this.bestConfiguration.get(
 
                     this.ValidTires.entrySet().stream()
                             // Compare entries by their value (number of valid tires)
                             .max(Map.Entry.comparingByValue())
-                            // Extract just the key (thread index) from the max entry
+                            // Extract just the key (tire count) from the max entry
                             .map(Map.Entry::getKey)
                             // Default to 0 if no entries exist
                             .orElse(0)
 
             );
-            return result;
+            return result == null ? TireLayout.empty(tireRadius) : result;
         } catch (Exception e) {
             System.out.println("Error getting result: " + e.getMessage());
-            return new ArrayList<>();
+            return TireLayout.empty(tireRadius);
         }
     }
 
+    @Override
+    public boolean runsInBackground() {
+        return true;
+    }
+
     @Override
     public boolean isFinished() {
-        return this.executor.isShutdown() || remainingThreads.get() == 0;
+        // A failed simulation never reports its count, the search would wait for it forever
+        return scope == null || scope.isCancelled() || scope.getFailure() != null || search.isDone();
+    }
+
+    // Finished is also true when the run was cancelled or failed, complete only when the search settled every count
+    @Override
+    public boolean isComplete() {
+        RunScope runScope = scope;
+        return runScope != null && !runScope.isCancelled() && runScope.getFailure() == null && search.isDone();
     }
 
     @Override
     public void stop() {
+        RunScope runScope = scope;
+        if (runScope == null) {
+            return;
+        }
         try {
-            isRunning.set(false);
-
-            // Apagar el executor service
-            executor.shutdownNow();
-            if (!executor.awaitTermination(3, TimeUnit.SECONDS)) {
-                System.err.println("El executor no se cerró correctamente");
+            // Cancelar solo las simulaciones de esta ejecución, el pool compartido sigue vivo
+            runScope.shutdown();
+            if (!runScope.join(3, TimeUnit.SECONDS)) {
+                System.err.println("Las simulaciones no terminaron a tiempo");
             }
-            System.out.println("Executor cerrado correctamente");
+            Throwable failure = runScope.getFailure();
+            if (failure != null) {
+                System.err.println("Error en una simulación: " + failure.getMessage());
+                failure.printStackTrace();
+            }
+            System.out.println("Simulaciones detenidas correctamente");
             System.out.println("Best configuration: " + this.getResult());
 
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             System.err.println("Interrupción durante el cierre de la simulación");
-        } finally {
-            cleanupResources();
-        }
-    }
-
-    private void cleanupResources() {
-        try {
-            isRunning.set(false);
-
-            // Asegurar que el executor se cierre
-            if (executor != null && !executor.isShutdown()) {
-                executor.shutdownNow();
-            }
-
-            // Limpiar otras estructuras de datos
-            bestConfiguration.clear();
-
-        } catch (Exception e) {
-            System.err.println("Error durante la limpieza de recursos: " + e.getMessage());
         }
     }
 
@@ -0,0 +1,56 @@
+package com.michelin.Optimization;
+
+import com.michelin.utils.PlacementValidator;
+import com.michelin.utils.TireLayout;
+
+/**
+ * Best layout an optimization has found so far, with its valid count and the
+ * area estimate of the most tires that could fit. The gap between both tells
+ * how much a longer run could still gain at most, so callers can trade time
+ * for quality.
+ */
+public final class OptimizationResult {
+    private final TireLayout layout;
+    private final int validCount;
+    private final int upperBound;
+
+    OptimizationResult(TireLayout layout, int validCount, int upperBound) {
+        this.layout = layout;
+        this.validCount = validCount;
+        this.upperBound = upperBound;
+    }
+
+    // Validates the current result of the optimization with the given rules
+    public static OptimizationResult of(AbstractOptimization optimization, PlacementValidator validator) {
+        return of(optimization.getResult(), validator);
+    }
+
+    // Validates a layout obtained elsewhere, e.g. from a ResultCache
+    public static OptimizationResult of(TireLayout layout, PlacementValidator validator) {
+        return new OptimizationResult(layout, validator.countValid(layout),
+                LatticeMath.areaUpperBound(layout.getRadius(), validator.getWidth(), validator.getHeight(),
+                        validator.getDistBorder(), validator.getDistTire()));
+    }
+
+    public TireLayout getLayout() {
+        return layout;
+    }
+
+    public int getValidCount() {
+        return validCount;
+    }
+
+    public int getUpperBound() {
+        return upperBound;
+    }
+
+    // Tires the area estimate still leaves room for, never negative
+    public int getGap() {
+        return Math.max(0, upperBound - validCount);
+    }
+
+    @Override
+    public String toString() {
+        return "OptimizationResult{valid=" + validCount + ", upperBound=" + upperBound + ", gap=" + getGap() + '}';
+    }
+}
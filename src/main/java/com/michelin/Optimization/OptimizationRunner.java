@@ -0,0 +1,164 @@
+package com.michelin.Optimization;
+
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.michelin.utils.PlacementValidator;
+import com.michelin.utils.TireLayout;
+
+/**
+ * Runs an optimization on its own thread as fast as it can step and publishes
+ * the latest layout through an AtomicReference. Readers such as the JavaFX
+ * AnimationTimer only pick up the newest frame, so rendering never slows the
+ * solver down and the solver never waits for a frame.
+ *
+ * Validity, valid count and occupancy are computed here when a frame is
+ * published, so the reader's cost does not depend on the number of tires.
+ */
+public class OptimizationRunner {
+    // At most one frame every few milliseconds, reading the layout has a cost too
+    private static final long PUBLISH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(8);
+    private static final long POLL_MILLIS = 10;
+
+    public static final class Frame {
+        private final TireLayout layout;
+        private final BitSet valid;
+        private final int validCount;
+        private final double occupancy;
+        private final long version;
+        private final boolean finished;
+
+        Frame(TireLayout layout, BitSet valid, double occupancy, long version, boolean finished) {
+            this.layout = layout;
+            this.valid = valid;
+            this.validCount = valid.cardinality();
+            this.occupancy = occupancy;
+            this.version = version;
+            this.finished = finished;
+        }
+
+        public TireLayout getLayout() {
+            return layout;
+        }
+
+        // Bit i is set when tire i is valid, returns a copy
+        public BitSet getValid() {
+            return (BitSet) valid.clone();
+        }
+
+        public boolean isValid(int index) {
+            return valid.get(index);
+        }
+
+        public int getValidCount() {
+            return validCount;
+        }
+
+        // Percentage of the container area covered by valid tires
+        public double getOccupancy() {
+            return occupancy;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public boolean isFinished() {
+            return finished;
+        }
+    }
+
+    private final AbstractOptimization optimization;
+    private final PlacementValidator validator;
+    private final AtomicReference<Frame> latest = new AtomicReference<>();
+    private volatile boolean running;
+    private Thread thread;
+    private long version;
+
+    public OptimizationRunner(AbstractOptimization optimization, PlacementValidator validator) {
+        this.optimization = optimization;
+        this.validator = validator;
+    }
+
+    public void start() {
+        running = true;
+        thread = new Thread(this::solve, "optimization-solver");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Newest published frame, or null before the first one
+    public Frame getLatest() {
+        return latest.get();
+    }
+
+    public AbstractOptimization getOptimization() {
+        return optimization;
+    }
+
+    // Stops the solver thread and then the optimization itself
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(3));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        optimization.stop();
+    }
+
+    private void solve() {
+        try {
+            optimization.setup();
+            long lastPublish = System.nanoTime();
+            do {
+                optimization.run();
+                if (optimization.runsInBackground()) {
+                    Thread.sleep(POLL_MILLIS);
+                }
+                long now = System.nanoTime();
+                if (now - lastPublish >= PUBLISH_INTERVAL_NANOS) {
+                    publish(false);
+                    lastPublish = now;
+                }
+            } while (running && !optimization.isFinished());
+            if (running) {
+                publish(true);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Error en la optimización: " + e.getMessage());
+            e.printStackTrace();
+            if (running) {
+                publishFinal();
+            }
+        }
+    }
+
+    // After a failure: the current result if it can still be read, else the last frame, marked finished
+    private void publishFinal() {
+        try {
+            publish(true);
+        } catch (RuntimeException e) {
+            Frame last = latest.get();
+            latest.set(last == null
+                    ? new Frame(TireLayout.empty(0), new BitSet(), 0, ++version, true)
+                    : new Frame(last.layout, last.valid, last.occupancy, ++version, true));
+        }
+    }
+
+    private void publish(boolean finished) {
+        TireLayout layout = optimization.getResult();
+        BitSet valid = validator.validate(layout);
+        double r = layout.getRadius();
+        double tireArea = valid.cardinality() * Math.PI * r * r;
+        double containerArea = (double) validator.getWidth() * validator.getHeight();
+        double occupancy = containerArea > 0 ? tireArea / containerArea * 100 : 0;
+        latest.set(new Frame(layout, valid, occupancy, ++version, finished));
+    }
+}
@@ -1,11 +1,12 @@
 package com.michelin.Optimization;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
 
-import com.michelin.utils.PhysicTire;
-import com.michelin.utils.Tire;
+import com.michelin.utils.LayoutBuffer;
+import com.michelin.utils.PlacementValidator;
+import com.michelin.utils.SpatialGrid;
+import com.michelin.utils.TireLayout;
 public class Physic implements AbstractOptimization {
     final long WALL_REPULSION_FORCE = 1_000_000_000;
     final long tireRadius;
@@ -15,13 +16,71 @@ public class Physic implements AbstractOptimization {
     final long distTire;
     final long maxIteration;
     final long REPULSION_FORCE = 100_000_000;
-    final float DAMPING = 0.90f;
-    final float DT = 0.016f;
-    
-    private final List<PhysicTire> tires;
-    private final long numTires;
+    final double DAMPING = 0.90;
+    final double DT = 0.016;
+    final double MAX_SPEED = 20000.0;
+    // Tabla de exp(k * WALL_TABLE_STEP) para la fuerza de pared, interpolada linealmente
+    static final double WALL_TABLE_STEP = 1.0 / 256;
+    static final double WALL_TABLE_LIMIT = 16;
+    private static final double[] WALL_TABLE = wallTable();
+    // Por defecto: ninguna rueda se desplaza más de un 1% del radio en 2000 pasos, 5 ventanas seguidas.
+    // Una simulación convergida cuenta como agotada en CountSearch, así que se prefiere esperar de más
+    static final double DEFAULT_CONVERGENCE_DRIFT = 0.01;
+    static final int DEFAULT_CONVERGENCE_STEPS = 2000;
+    static final int DEFAULT_CONVERGENCE_WINDOWS = 5;
+
+    public enum StopReason {
+        RUNNING,
+        CONVERGED,
+        MAX_ITERATIONS,
+        TIME_LIMIT,
+        STOPPED
+    }
+
+    // Estado de la simulación en arrays primitivos (una posición por rueda), todo en double.
+    // Las posiciones se redondean a unidades enteras solo para validar y al devolver el resultado
+    private final int numTires;
+    private final double[] x;
+    private final double[] y;
+    private final double[] vx;
+    private final double[] vy;
+    private final double[] fx;
+    private final double[] fy;
+    // Posiciones al inicio de la ventana de convergencia actual
+    private final double[] anchorX;
+    private final double[] anchorY;
+    // Posiciones enteras, para la disposición inicial y la validación
+    private final long[] roundedX;
+    private final long[] roundedY;
+    // Validez de cada rueda para las posiciones actuales
+    private final boolean[] invalid;
+    private int validCount;
+    private boolean validDirty;
+    private boolean gridDirty;
+
+    private final double repulsionRange;
+    private final double repulsionRangeSquared;
+    private final double scaledRepulsionForce;
+    // Distancia que multiplica por e la fuerza de pared
+    private final double wallForceScale;
+    private final SpatialGrid grid;
     private int iteration;
-    
+
+    // Convergencia: desplazamiento máximo permitido dentro de una ventana de pasos
+    private long convergenceDisplacement;
+    private int convergenceSteps = DEFAULT_CONVERGENCE_STEPS;
+    private int convergenceWindows = DEFAULT_CONVERGENCE_WINDOWS;
+    // Ventanas tranquilas seguidas hasta ahora
+    private int quietWindows;
+    private StopReason stopReason = StopReason.RUNNING;
+
+    // Semilla propia: la misma semilla y disposición inicial repiten la simulación exacta
+    private long seed = ThreadLocalRandom.current().nextLong();
+    private InitialLayout initialLayout = InitialLayout.uniform();
+    // Límite de tiempo y de pasos, se aplica el menor entre los pasos y maxIteration
+    private Budget budget = Budget.UNLIMITED;
+    private long startNanos;
+
     public Physic(long tireRadius, long containerWidth, long containerHeight,
     long distBorder, long distTire, long maxIteration, long numTires) {
         this.tireRadius = tireRadius;
@@ -30,126 +89,349 @@ public class Physic implements AbstractOptimization {
         this.distBorder = distBorder;
         this.distTire = distTire;
         this.maxIteration = maxIteration;
-        this.tires = new ArrayList<>();
-        this.numTires = numTires;
+        this.numTires = (int) numTires;
+        this.x = new double[this.numTires];
+        this.y = new double[this.numTires];
+        this.vx = new double[this.numTires];
+        this.vy = new double[this.numTires];
+        this.fx = new double[this.numTires];
+        this.fy = new double[this.numTires];
+        this.anchorX = new double[this.numTires];
+        this.anchorY = new double[this.numTires];
+        this.roundedX = new long[this.numTires];
+        this.roundedY = new long[this.numTires];
+        this.invalid = new boolean[this.numTires];
+        this.convergenceDisplacement = (long) (tireRadius * DEFAULT_CONVERGENCE_DRIFT);
+        // Tires only repel inside this range, so it is also the grid cell size
+        this.repulsionRange = 1.1 * (2 * tireRadius + distTire);
+        this.repulsionRangeSquared = repulsionRange * repulsionRange;
+        // Escalar las fuerzas según el radio del neumático
+        this.scaledRepulsionForce = (long) (REPULSION_FORCE * (tireRadius / 100.0));
+        // Sin margen de borde la fuerza crecería sin límite, se usa el radio como escala
+        this.wallForceScale = distBorder > 0 ? distBorder : Math.max(1, tireRadius);
+        this.grid = new SpatialGrid((long) Math.ceil(repulsionRange), containerWidth, containerHeight,
+                this.numTires);
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // Where setup() puts the tires, uniformly random by default
+    public void setInitialLayout(InitialLayout initialLayout) {
+        this.initialLayout = initialLayout;
     }
-    
+
+    // Steps are iterations, the lower of the budget and maxIteration applies
+    @Override
+    public void setBudget(Budget budget) {
+        this.budget = budget;
+    }
+
     @Override
     public void setup() {
-        tires.clear();
+        startNanos = System.nanoTime();
+        initialLayout.place(roundedX, roundedY, tireRadius, containerWidth, containerHeight, distBorder, distTire,
+                new SplittableRandom(seed));
         for (int i = 0; i < numTires; i++) {
-            long randomX = (long) (Math.random() * (containerWidth - 2 * distBorder) + distBorder);
-            long randomY = (long) (Math.random() * (containerHeight - 2 * distBorder) + distBorder);
-            tires.add(new PhysicTire("Tire" + i, tireRadius, randomX, randomY));
+            x[i] = roundedX[i];
+            y[i] = roundedY[i];
+            vx[i] = 0;
+            vy[i] = 0;
+            fx[i] = 0;
+            fy[i] = 0;
+            anchorX[i] = x[i];
+            anchorY[i] = y[i];
         }
         iteration = 0;
+        quietWindows = 0;
+        stopReason = StopReason.RUNNING;
+        gridDirty = true;
+        validDirty = true;
+    }
+
+    /**
+     * The simulation is considered settled once, for quietWindows windows of
+     * stableSteps steps in a row, no tire ends up more than maxDisplacement
+     * away from where it was at the start of the window. The window is
+     * compared as a whole because tires pressed against a wall keep bouncing
+     * in place at full speed without going anywhere. A stableSteps value of 0
+     * or less disables the check and always runs to maxIteration.
+     *
+     * This trades quality for speed: MaxForceOptimization treats a settled
+     * simulation that did not fit every tire as ran out, and CountSearch rules
+     * a count out once all its restarts ran out. The defaults wait at least
+     * 10,000 quiet steps, against the 300,000 steps a simulation may run.
+     */
+    public void setConvergence(long maxDisplacement, int stableSteps, int quietWindows) {
+        this.convergenceDisplacement = maxDisplacement;
+        this.convergenceSteps = stableSteps;
+        this.convergenceWindows = Math.max(1, quietWindows);
+    }
+
+    public void setConvergence(long maxDisplacement, int stableSteps) {
+        setConvergence(maxDisplacement, stableSteps, 1);
+    }
+
+    public StopReason getStopReason() {
+        return stopReason;
+    }
+
+    public int getIteration() {
+        return iteration;
     }
-    
+
+    /**
+     * Number of tires that satisfy the same rules as Tire.isValidTire for the
+     * current positions. Computed at most once per step, reusing the grid the
+     * next step needs anyway, so calling it every step is cheap.
+     */
+    public int validCount() {
+        if (validDirty) {
+            rebuildGrid();
+            updateValidity();
+        }
+        return validCount;
+    }
+
+    // Current positions rounded to whole units, without allocating once the buffer is large enough
+    public void readLayout(LayoutBuffer buffer) {
+        buffer.reset(tireRadius, numTires);
+        for (int i = 0; i < numTires; i++) {
+            buffer.set(i, round(x[i]), round(y[i]));
+        }
+    }
+
+    // Snapshot of the current positions rounded to whole units, tire i keeps index i
     @Override
-    public List<Tire> getResult() {
-        return tires.stream()
-        .map(tire -> tire.clone())
-        .collect(Collectors.toList());
+    public TireLayout getResult() {
+        long[] resultX = new long[numTires];
+        long[] resultY = new long[numTires];
+        for (int i = 0; i < numTires; i++) {
+            resultX[i] = round(x[i]);
+            resultY[i] = round(y[i]);
+        }
+        return new TireLayout(tireRadius, resultX, resultY);
     }
-    
+
     @Override
     public boolean isFinished() {
-        return iteration >= maxIteration;
+        return stopReason != StopReason.RUNNING;
     }
+
+    @Override
+    public void stop() {
+        if (stopReason == StopReason.RUNNING) {
+            stopReason = StopReason.STOPPED;
+        }
+    }
+
     @Override
     public void run() {
-        tires.forEach(tire -> {
-            updateTirePhysics(tire, calculateForces(tire, tires));
-        });
+        // Fase 1: acumular todas las fuerzas con las posiciones del paso actual
+        rebuildGrid();
+        for (int i = 0; i < numTires; i++) {
+            fx[i] = 0;
+            fy[i] = 0;
+        }
+        for (int i = 0; i < numTires; i++) {
+            addNeighbourRepulsion(i);
+            addBorderForces(i);
+        }
+
+        // Fase 2: integrar todas las ruedas
+        for (int i = 0; i < numTires; i++) {
+            updateTirePhysics(i);
+        }
         iteration++;
+        gridDirty = true;
+        validDirty = true;
+        updateStopReason();
     }
 
-    private Vector2D calculateForces(PhysicTire tire, List<PhysicTire> others) {
-        Vector2D force = new Vector2D();
-        
-        // Escalar las fuerzas según el radio del neumático
-        long scaledRepulsionForce = (long)(REPULSION_FORCE * (tireRadius / 100.0));
-        
-        // Fuerzas entre ruedas con fuerza escalada
-        others.stream()
-            .filter(other -> other != tire)
-            .forEach(other -> addTireRepulsion(tire, other, force, scaledRepulsionForce));
-        
-        // Fuerzas de bordes
-        addBorderForces(tire, force);
-        
-        return force;
-    }
-    
-    private void addTireRepulsion(PhysicTire tire1, PhysicTire tire2, Vector2D force, long scaledRepulsionForce) {
-        long dx = tire1.getX() - tire2.getX();
-        long dy = tire1.getY() - tire2.getY();
-        double dist = Math.sqrt(dx * dx + dy * dy);
-        double minDist =  1.1 * (2 * tireRadius + distTire);
-        
-        if (dist < minDist && dist > 0.0001) {
-            double magnitude = scaledRepulsionForce * Math.pow((minDist - dist) / minDist, 2);
-            force.x += (long)((dx / dist) * magnitude);
-            force.y += (long)((dy / dist) * magnitude); 
-        }
-    }
-    
-    private void addBorderForces(PhysicTire tire, Vector2D force) {
-        long[] distances = {
-            tire.getX() - (distBorder + tireRadius), // Left border
-            (containerWidth - distBorder - tireRadius) - tire.getX(), // Right border  
-            tire.getY() - (distBorder + tireRadius), // Top border
-            (containerHeight - distBorder - tireRadius) - tire.getY() // Bottom border
-        };
-        
-        
-        for (int i = 0; i < distances.length; i++) {
-            if (distances[i] < 0) {
-                double borderForce = WALL_REPULSION_FORCE * 
-                Math.exp(Math.abs(distances[i]) / (double)distBorder);
-                if (i < 2) { 
-                    force.x += (i == 0) ? borderForce : -borderForce;
-                } else {
-                    force.y += (i == 2) ? borderForce : -borderForce;
+    private void rebuildGrid() {
+        if (!gridDirty) {
+            return;
+        }
+        grid.clear();
+        for (int i = 0; i < numTires; i++) {
+            roundedX[i] = round(x[i]);
+            roundedY[i] = round(y[i]);
+            grid.insert(i, roundedX[i], roundedY[i]);
+        }
+        gridDirty = false;
+    }
+
+    // Same rules as PlacementValidator, on the rounded positions the grid was built with
+    private void updateValidity() {
+        long minDist = 2 * tireRadius + distTire - 1;
+        long[] rx = roundedX;
+        long[] ry = roundedY;
+        for (int i = 0; i < numTires; i++) {
+            invalid[i] = rx[i] - tireRadius < distBorder || rx[i] + tireRadius > containerWidth - distBorder
+                    || ry[i] - tireRadius < distBorder || ry[i] + tireRadius > containerHeight - distBorder;
+        }
+        for (int i = 0; i < numTires; i++) {
+            int cx = grid.cellX(rx[i]);
+            int cy = grid.cellY(ry[i]);
+            for (int gy = Math.max(0, cy - 1); gy <= Math.min(grid.getRows() - 1, cy + 1); gy++) {
+                for (int gx = Math.max(0, cx - 1); gx <= Math.min(grid.getCols() - 1, cx + 1); gx++) {
+                    for (int j = grid.head(gx, gy); j != -1; j = grid.next(j)) {
+                        if (j > i && PlacementValidator.tooClose(rx[i] - rx[j], ry[i] - ry[j], minDist)) {
+                            invalid[i] = true;
+                            invalid[j] = true;
+                        }
+                    }
                 }
             }
         }
+        int count = 0;
+        for (int i = 0; i < numTires; i++) {
+            if (!invalid[i]) {
+                count++;
+            }
+        }
+        validCount = count;
+        validDirty = false;
+    }
+
+    private void updateStopReason() {
+        if (convergenceSteps > 0 && iteration % convergenceSteps == 0) {
+            double drift = 0;
+            for (int i = 0; i < numTires; i++) {
+                drift = Math.max(drift, Math.max(Math.abs(x[i] - anchorX[i]), Math.abs(y[i] - anchorY[i])));
+                anchorX[i] = x[i];
+                anchorY[i] = y[i];
+            }
+            quietWindows = drift <= convergenceDisplacement ? quietWindows + 1 : 0;
+            if (quietWindows >= convergenceWindows) {
+                stopReason = StopReason.CONVERGED;
+                return;
+            }
+        }
+        if (iteration >= budget.capSteps(maxIteration)) {
+            stopReason = StopReason.MAX_ITERATIONS;
+        } else if (budget.isExpired(startNanos)) {
+            stopReason = StopReason.TIME_LIMIT;
+        }
+    }
+
+    // Visits each unordered pair once and applies the force to both tires
+    private void addNeighbourRepulsion(int i) {
+        int cx = grid.cellX(roundedX[i]);
+        int cy = grid.cellY(roundedY[i]);
+        for (int j = grid.head(cx, cy); j != -1; j = grid.next(j)) {
+            if (j > i) {
+                addTireRepulsion(i, j);
+            }
+        }
+        // Media vecindad: cada par de celdas vecinas se recorre desde una sola de ellas
+        addCellRepulsion(i, cx + 1, cy);
+        addCellRepulsion(i, cx - 1, cy + 1);
+        addCellRepulsion(i, cx, cy + 1);
+        addCellRepulsion(i, cx + 1, cy + 1);
     }
-        
-    private void updateTirePhysics(PhysicTire tire, Vector2D force) {
-        double newSpeedX = tire.getCurrentSpeedX() + force.x * DT;
-        double newSpeedY = tire.getCurrentSpeedY() + force.y * DT;
-        
-        double speed = Math.sqrt(newSpeedX * newSpeedX + newSpeedY * newSpeedY);
-        double maxSpeed = 20000.0;
-        
-        if (speed > maxSpeed) {
-            newSpeedX = (newSpeedX / speed) * maxSpeed;
-            newSpeedY = (newSpeedY / speed) * maxSpeed;
-        }
-        
-        
+
+    private void addCellRepulsion(int i, int gx, int gy) {
+        if (gx < 0 || gx >= grid.getCols() || gy >= grid.getRows()) {
+            return;
+        }
+        for (int j = grid.head(gx, gy); j != -1; j = grid.next(j)) {
+            addTireRepulsion(i, j);
+        }
+    }
+
+    private void addTireRepulsion(int i, int j) {
+        double dx = x[i] - x[j];
+        double dy = y[i] - y[j];
+        // Descartar con la distancia al cuadrado antes de calcular la raíz
+        double distSquared = dx * dx + dy * dy;
+        if (distSquared >= repulsionRangeSquared || distSquared <= 1e-8) {
+            return;
+        }
+        double dist = Math.sqrt(distSquared);
+        double overlap = (repulsionRange - dist) / repulsionRange;
+        double scale = scaledRepulsionForce * overlap * overlap / dist;
+        double forceX = dx * scale;
+        double forceY = dy * scale;
+        // Tercera ley de Newton: misma fuerza en sentido contrario
+        fx[i] += forceX;
+        fy[i] += forceY;
+        fx[j] -= forceX;
+        fy[j] -= forceY;
+    }
+
+    private void addBorderForces(int i) {
+        double left = x[i] - (distBorder + tireRadius);
+        double right = (containerWidth - distBorder - tireRadius) - x[i];
+        double top = y[i] - (distBorder + tireRadius);
+        double bottom = (containerHeight - distBorder - tireRadius) - y[i];
+
+        if (left < 0) {
+            fx[i] += borderForce(left);
+        }
+        if (right < 0) {
+            fx[i] -= borderForce(right);
+        }
+        if (top < 0) {
+            fy[i] += borderForce(top);
+        }
+        if (bottom < 0) {
+            fy[i] -= borderForce(bottom);
+        }
+    }
+
+    private double borderForce(double distance) {
+        return WALL_REPULSION_FORCE * wallExp(Math.abs(distance) / wallForceScale);
+    }
+
+    // Nearest whole unit, cheaper than Math.round and used for every rounded position
+    private static long round(double value) {
+        return (long) Math.floor(value + 0.5);
+    }
+
+    // exp(t) for t >= 0 from the table, Math.exp past its end
+    static double wallExp(double t) {
+        double position = t / WALL_TABLE_STEP;
+        int index = (int) position;
+        if (index >= WALL_TABLE.length - 1) {
+            return Math.exp(t);
+        }
+        double fraction = position - index;
+        return WALL_TABLE[index] + (WALL_TABLE[index + 1] - WALL_TABLE[index]) * fraction;
+    }
+
+    private static double[] wallTable() {
+        double[] table = new double[(int) (WALL_TABLE_LIMIT / WALL_TABLE_STEP) + 1];
+        for (int k = 0; k < table.length; k++) {
+            table[k] = Math.exp(k * WALL_TABLE_STEP);
+        }
+        return table;
+    }
+
+    private void updateTirePhysics(int i) {
+        double newSpeedX = vx[i] + fx[i] * DT;
+        double newSpeedY = vy[i] + fy[i] * DT;
+
+        double speedSquared = newSpeedX * newSpeedX + newSpeedY * newSpeedY;
+        if (speedSquared > MAX_SPEED * MAX_SPEED) {
+            double scale = MAX_SPEED / Math.sqrt(speedSquared);
+            newSpeedX *= scale;
+            newSpeedY *= scale;
+        }
+
+
         newSpeedX *= DAMPING;
         newSpeedY *= DAMPING;
-        
-        tire.setCurrentSpeedX((long)newSpeedX);
-        tire.setCurrentSpeedY((long)newSpeedY);
-        
-        long newX = tire.getX() + (long)(newSpeedX * DT);
-        long newY = tire.getY() + (long)(newSpeedY * DT);
-        
-        /*  newX = Math.max(config.distBorder + config.tireRadius, 
-        Math.min(config.containerWidth - config.distBorder - config.tireRadius, newX));
-        newY = Math.max(config.distBorder + config.tireRadius, 
-        Math.min(config.containerHeight - config.distBorder - config.tireRadius, newY));
-        */
-        tire.setX(newX);
-        tire.setY(newY);
-    }
-        
-        
-    
-    private static class Vector2D {
-        long x, y;
+
+        vx[i] = newSpeedX;
+        vy[i] = newSpeedY;
+
+        x[i] += newSpeedX * DT;
+        y[i] += newSpeedY * DT;
     }
 }
@@ -0,0 +1,289 @@
+package com.michelin.Optimization;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.michelin.utils.PlacementValidator;
+import com.michelin.utils.TireLayout;
+
+/**
+ * Results of previous runs, keyed by method and parameters, in a bounded LRU
+ * map backed by an optional directory of binary layout files that survives
+ * restarts. Safe to share between threads. An entry is only replaced by a
+ * layout with more valid tires, so a worse run never overwrites a better one.
+ *
+ * Keys are normalised so the width is never larger than the height: a
+ * container and its rotation share one entry and the layout is transposed
+ * on the way in and out.
+ *
+ * Besides exact hits, warmStart() finds a cached layout for the same tires in
+ * a container that fits inside the requested one. Stored layouts may hold
+ * invalid tires (MaxForceOptimization keeps every simulated one), so only the
+ * tires valid in the requested container are returned. They make a good
+ * InitialLayout.fromLayout for iterative optimizations. Only the memory tier
+ * is searched for warm starts.
+ *
+ * Layout file: MAGIC, VERSION, radius, count, then count pairs of x and y,
+ * written with DataOutputStream.
+ */
+public class ResultCache {
+    public static final int DEFAULT_CAPACITY = 256;
+    private static final int MAGIC = 0x544C4159; // "TLAY"
+    private static final int VERSION = 1;
+    private static final String EXTENSION = ".layout";
+    // MAGIC, VERSION, radius and count, followed by 16 bytes per tire
+    private static final long HEADER_BYTES = 4 + 4 + 8 + 4;
+    private static final long TIRE_BYTES = 8 + 8;
+
+    // Parameters with width <= height
+    private static final class Key {
+        final String method;
+        final long radius;
+        final long width;
+        final long height;
+        final long distBorder;
+        final long distTire;
+
+        Key(String method, long radius, long width, long height, long distBorder, long distTire) {
+            this.method = method;
+            this.radius = radius;
+            this.width = Math.min(width, height);
+            this.height = Math.max(width, height);
+            this.distBorder = distBorder;
+            this.distTire = distTire;
+        }
+
+        // Same tires and rules, container no larger than other's in either direction
+        boolean fitsIn(Key other) {
+            return radius == other.radius && distBorder == other.distBorder && distTire == other.distTire
+                    && width <= other.width && height <= other.height;
+        }
+
+        String fileName() {
+            return method + "_" + radius + "_" + width + "_" + height + "_" + distBorder + "_" + distTire
+                    + EXTENSION;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return radius == key.radius && width == key.width && height == key.height
+                    && distBorder == key.distBorder && distTire == key.distTire && method.equals(key.method);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = method.hashCode();
+            hash = 31 * hash + Long.hashCode(radius);
+            hash = 31 * hash + Long.hashCode(width);
+            hash = 31 * hash + Long.hashCode(height);
+            hash = 31 * hash + Long.hashCode(distBorder);
+            return 31 * hash + Long.hashCode(distTire);
+        }
+    }
+
+    private final Map<Key, TireLayout> memory;
+    private final Path directory;
+    // Held by put() so comparing with the stored layout and replacing it is atomic
+    private final Object putLock = new Object();
+
+    // Memory tier only
+    public ResultCache(int capacity) {
+        this(capacity, null);
+    }
+
+    // directory holds the persistent tier and is created when missing, null for memory only
+    public ResultCache(int capacity, Path directory) {
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, TireLayout> eldest) {
+                return size() > capacity;
+            }
+        };
+        this.directory = directory;
+    }
+
+    /**
+     * Layout stored for these parameters, or null on a miss. A hit on the
+     * disk tier is promoted to the memory tier.
+     */
+    public TireLayout get(String method, long radius, long width, long height, long distBorder, long distTire) {
+        Key key = new Key(method, radius, width, height, distBorder, distTire);
+        TireLayout layout;
+        synchronized (memory) {
+            layout = memory.get(key);
+        }
+        if (layout == null && directory != null) {
+            layout = read(directory.resolve(key.fileName()));
+            if (layout != null) {
+                synchronized (memory) {
+                    memory.put(key, layout);
+                }
+            }
+        }
+        return layout == null ? null : orient(layout, width, height);
+    }
+
+    // Stores layout unless the entry already holds one with at least as many valid tires
+    public void put(String method, long radius, long width, long height, long distBorder, long distTire,
+            TireLayout layout) {
+        Key key = new Key(method, radius, width, height, distBorder, distTire);
+        TireLayout normalised = orient(layout, width, height);
+        PlacementValidator validator = new PlacementValidator(key.width, key.height, distBorder, distTire);
+        synchronized (putLock) {
+            TireLayout current;
+            synchronized (memory) {
+                current = memory.get(key);
+            }
+            if (current == null && directory != null) {
+                current = read(directory.resolve(key.fileName()));
+            }
+            if (current != null && validator.countValid(current) >= validator.countValid(normalised)) {
+                return;
+            }
+            synchronized (memory) {
+                memory.put(key, normalised);
+            }
+            if (directory != null) {
+                write(directory.resolve(key.fileName()), normalised);
+            }
+        }
+    }
+
+    /**
+     * Valid tires of the cached layout, of any method, with the most tires
+     * valid in this container among those for the same tires in a container
+     * that fits inside it, or null. Exact hits are included.
+     */
+    public TireLayout warmStart(long radius, long width, long height, long distBorder, long distTire) {
+        Key wanted = new Key("", radius, width, height, distBorder, distTire);
+        List<TireLayout> candidates = new ArrayList<>();
+        synchronized (memory) {
+            for (Map.Entry<Key, TireLayout> entry : memory.entrySet()) {
+                if (entry.getKey().fitsIn(wanted)) {
+                    candidates.add(entry.getValue());
+                }
+            }
+        }
+        // Validated outside the lock, stored layouts are normalised like the wanted key
+        PlacementValidator validator = new PlacementValidator(wanted.width, wanted.height, distBorder, distTire);
+        TireLayout best = null;
+        BitSet bestValid = null;
+        for (TireLayout layout : candidates) {
+            BitSet valid = validator.validate(layout);
+            if (bestValid == null || valid.cardinality() > bestValid.cardinality()) {
+                best = layout;
+                bestValid = valid;
+            }
+        }
+        return best == null ? null : orient(validOnly(best, bestValid), width, height);
+    }
+
+    public int size() {
+        synchronized (memory) {
+            return memory.size();
+        }
+    }
+
+    private static TireLayout validOnly(TireLayout layout, BitSet valid) {
+        if (valid.cardinality() == layout.size()) {
+            return layout;
+        }
+        long[] x = new long[valid.cardinality()];
+        long[] y = new long[x.length];
+        int count = 0;
+        for (int i = valid.nextSetBit(0); i >= 0; i = valid.nextSetBit(i + 1)) {
+            x[count] = layout.getX(i);
+            y[count] = layout.getY(i);
+            count++;
+        }
+        return new TireLayout(layout.getRadius(), x, y);
+    }
+
+    // Stored layouts are for width <= height, transposing converts in both directions
+    private static TireLayout orient(TireLayout layout, long width, long height) {
+        return width > height ? layout.transposed() : layout;
+    }
+
+    private static TireLayout read(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            long length = Files.size(file);
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                System.err.println("Ignoring cache file with an unknown format: " + file);
+                return null;
+            }
+            long radius = in.readLong();
+            int count = in.readInt();
+            // Checked before allocating, a damaged count must not size the arrays
+            if (count < 0 || length != HEADER_BYTES + TIRE_BYTES * count) {
+                System.err.println("Ignoring corrupt cache file: " + file);
+                return null;
+            }
+            long[] x = new long[count];
+            long[] y = new long[count];
+            for (int i = 0; i < count; i++) {
+                x[i] = in.readLong();
+                y[i] = in.readLong();
+            }
+            return new TireLayout(radius, x, y);
+        } catch (IOException e) {
+            System.err.println("Error reading cache file " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Written to a temporary file first so readers never see a partial layout
+    private static void write(Path file, TireLayout layout) {
+        Path temporary = null;
+        try {
+            Files.createDirectories(file.getParent());
+            temporary = Files.createTempFile(file.getParent(), "layout", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(layout.getRadius());
+                out.writeInt(layout.size());
+                for (int i = 0; i < layout.size(); i++) {
+                    out.writeLong(layout.getX(i));
+                    out.writeLong(layout.getY(i));
+                }
+            }
+            try {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing cache file " + file + ": " + e.getMessage());
+            try {
+                if (temporary != null) {
+                    Files.deleteIfExists(temporary);
+                }
+            } catch (IOException ignored) {
+                // Only a leftover temporary file
+            }
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.michelin.Optimization;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import com.michelin.utils.PlacementValidator;
+import com.michelin.utils.SpatialGrid;
+import com.michelin.utils.TireLayout;
+
+/**
+ * Simulated annealing over the tire positions, with a variable tire count.
+ *
+ * The energy is the sum over overlapping pairs of ((minDist - d) / minDist)^2,
+ * where minDist = 2 * radius + distTire - 1 is the distance below which
+ * PlacementValidator rejects a pair. Centres are kept inside the area allowed
+ * by the border, so a layout is valid exactly when no pair overlaps. A move
+ * displaces one tire and only that tire's neighbours are looked at through a
+ * SpatialGrid, so a move costs the same whatever the number of tires.
+ *
+ * The search starts from the best hybrid or lattice layout. Whenever the
+ * layout becomes valid it is kept as the best one and a tire is added at the
+ * least crowded of a few random spots. When no valid layout is reached for a
+ * while the most overlapped tire is removed. Both reheat the temperature,
+ * which then cools down geometrically, while the step size adapts to keep
+ * the acceptance rate around ACCEPTANCE_TARGET.
+ */
+public class SimulatedAnnealingOptimization implements AbstractOptimization {
+    public static final long DEFAULT_MAX_MOVES = 5_000_000;
+    // Moves per run() call, a few milliseconds of work
+    private static final int MOVES_PER_RUN = 20_000;
+    // Moves between temperature and step size updates
+    private static final int ADAPT_INTERVAL = 1_000;
+    private static final double START_TEMPERATURE = 1e-3;
+    private static final double MIN_TEMPERATURE = 1e-7;
+    private static final double COOLING = 0.95;
+    private static final double ACCEPTANCE_TARGET = 0.4;
+    private static final double MIN_STEP = 1e-3;
+    private static final double MAX_STEP = 0.5;
+    // Random spots compared when adding a tire
+    private static final int ADD_SAMPLES = 64;
+    // Moves per tire without a valid layout before giving up on the current count
+    private static final int STALL_MOVES_PER_TIRE = 2_000;
+
+    private final long radius;
+    private final long width;
+    private final long height;
+    private final long distBorder;
+    private final long distTire;
+    private final long minDist;
+    // Allowed range for tire centres
+    private final long minX;
+    private final long maxX;
+    private final long minY;
+    private final long maxY;
+    private long maxMoves = DEFAULT_MAX_MOVES;
+    private Budget budget = Budget.UNLIMITED;
+    private long startNanos;
+    private boolean outOfTime;
+    private SplittableRandom random = new SplittableRandom();
+
+    private int count;
+    private long[] x = new long[0];
+    private long[] y = new long[0];
+    private SpatialGrid grid;
+    private int overlappingPairs;
+
+    private double temperature;
+    // Step size as a fraction of minDist
+    private double step;
+    private long moves;
+    private int accepted;
+    private long lastValidMove;
+
+    private int bestCount;
+    private long[] bestX = new long[0];
+    private long[] bestY = new long[0];
+    private TireLayout bestLayout;
+
+    // Energy and overlapping pairs of one tire against its neighbours
+    private double localEnergy;
+    private int localPairs;
+
+    public SimulatedAnnealingOptimization(long radius, long width, long height, long distBorder, long distTire) {
+        this.radius = radius;
+        this.width = width;
+        this.height = height;
+        this.distBorder = distBorder;
+        this.distTire = distTire;
+        this.minDist = 2 * radius + distTire - 1;
+        this.minX = distBorder + radius;
+        this.maxX = width - distBorder - radius;
+        this.minY = distBorder + radius;
+        this.maxY = height - distBorder - radius;
+    }
+
+    // Total number of moves before isFinished() reports true
+    public void setMaxMoves(long maxMoves) {
+        this.maxMoves = maxMoves;
+    }
+
+    public void setSeed(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    // Steps are moves, the lower of the budget and setMaxMoves applies
+    @Override
+    public void setBudget(Budget budget) {
+        this.budget = budget;
+    }
+
+    public int getBestCount() {
+        return bestCount;
+    }
+
+    @Override
+    public void setup() {
+        startNanos = System.nanoTime();
+        outOfTime = false;
+        TireLayout start = LatticeOptimizations.bestLattice(radius, width, height, distBorder, distTire).getResult();
+
+        count = start.size();
+        x = new long[Math.max(16, count * 2)];
+        y = new long[x.length];
+        for (int i = 0; i < count; i++) {
+            x[i] = start.getX(i);
+            y[i] = start.getY(i);
+        }
+        grid = new SpatialGrid(Math.max(1, minDist), width, height, x.length);
+        for (int i = 0; i < count; i++) {
+            grid.insert(i, x[i], y[i]);
+        }
+        countOverlaps();
+
+        moves = 0;
+        accepted = 0;
+        lastValidMove = 0;
+        temperature = START_TEMPERATURE;
+        step = 0.1;
+        bestCount = -1;
+        bestLayout = null;
+        if (overlappingPairs == 0) {
+            saveBest();
+        }
+    }
+
+    @Override
+    public void run() {
+        if (isFinished()) {
+            return;
+        }
+        long moveLimit = budget.capSteps(maxMoves);
+        for (int m = 0; m < MOVES_PER_RUN && moves < moveLimit; m++) {
+            if (count > 0 && tryMove(random.nextInt(count))) {
+                accepted++;
+            }
+            moves++;
+
+            if (overlappingPairs == 0) {
+                lastValidMove = moves;
+                if (count > bestCount) {
+                    saveBest();
+                }
+                addTire();
+            } else if (moves - lastValidMove > (long) STALL_MOVES_PER_TIRE * count) {
+                removeWorstTire();
+                lastValidMove = moves;
+            }
+
+            if (moves % ADAPT_INTERVAL == 0) {
+                adapt();
+                if (budget.isExpired(startNanos)) {
+                    outOfTime = true;
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public TireLayout getResult() {
+        if (bestLayout == null) {
+            bestLayout = new TireLayout(radius, bestX, bestY, Math.max(0, bestCount));
+        }
+        return bestLayout;
+    }
+
+    @Override
+    public boolean isFinished() {
+        // With minDist <= 0 no pair can overlap and tires could be added forever, the start layout is kept
+        return moves >= budget.capSteps(maxMoves) || outOfTime || minDist <= 0 || minX > maxX || minY > maxY;
+    }
+
+    // Metropolis step for one tire, returns whether the move was kept
+    private boolean tryMove(int i) {
+        long oldX = x[i];
+        long oldY = y[i];
+        double sigma = step * Math.max(1, minDist);
+        long newX = clamp(oldX + Math.round(random.nextDouble(-1, 1) * sigma), minX, maxX);
+        long newY = clamp(oldY + Math.round(random.nextDouble(-1, 1) * sigma), minY, maxY);
+        if (newX == oldX && newY == oldY) {
+            return false;
+        }
+
+        evaluate(i, oldX, oldY);
+        double oldEnergy = localEnergy;
+        int oldPairs = localPairs;
+        evaluate(i, newX, newY);
+        double delta = localEnergy - oldEnergy;
+        if (delta > 0 && random.nextDouble() >= Math.exp(-delta / temperature)) {
+            return false;
+        }
+
+        grid.move(i, oldX, oldY, newX, newY);
+        x[i] = newX;
+        y[i] = newY;
+        overlappingPairs += localPairs - oldPairs;
+        return true;
+    }
+
+    // Fills localEnergy and localPairs for tire i placed at (px, py), ignoring tire i itself
+    private void evaluate(int i, long px, long py) {
+        localEnergy = 0;
+        localPairs = 0;
+        int cx = grid.cellX(px);
+        int cy = grid.cellY(py);
+        for (int gy = Math.max(0, cy - 1); gy <= Math.min(grid.getRows() - 1, cy + 1); gy++) {
+            for (int gx = Math.max(0, cx - 1); gx <= Math.min(grid.getCols() - 1, cx + 1); gx++) {
+                for (int j = grid.head(gx, gy); j != -1; j = grid.next(j)) {
+                    long dx = px - x[j];
+                    long dy = py - y[j];
+                    if (j != i && PlacementValidator.tooClose(dx, dy, minDist)) {
+                        double overlap = (minDist - Math.sqrt((double) dx * dx + (double) dy * dy)) / minDist;
+                        localEnergy += overlap * overlap;
+                        localPairs++;
+                    }
+                }
+            }
+        }
+    }
+
+    // Adds a tire at the sampled spot with the lowest energy
+    private void addTire() {
+        if (count == x.length) {
+            x = Arrays.copyOf(x, x.length * 2);
+            y = Arrays.copyOf(y, y.length * 2);
+        }
+        long spotX = 0;
+        long spotY = 0;
+        double spotEnergy = Double.MAX_VALUE;
+        int spotPairs = 0;
+        for (int s = 0; s < ADD_SAMPLES && spotEnergy > 0; s++) {
+            long px = minX + (long) (random.nextDouble() * (maxX - minX + 1));
+            long py = minY + (long) (random.nextDouble() * (maxY - minY + 1));
+            evaluate(-1, px, py);
+            if (localEnergy < spotEnergy) {
+                spotX = px;
+                spotY = py;
+                spotEnergy = localEnergy;
+                spotPairs = localPairs;
+            }
+        }
+        x[count] = spotX;
+        y[count] = spotY;
+        grid.insert(count, spotX, spotY);
+        count++;
+        overlappingPairs += spotPairs;
+        reheat();
+    }
+
+    // Removes the tire with the highest energy, moving the last tire into its slot
+    private void removeWorstTire() {
+        int worst = -1;
+        double worstEnergy = -1;
+        for (int i = 0; i < count; i++) {
+            evaluate(i, x[i], y[i]);
+            if (localEnergy > worstEnergy) {
+                worst = i;
+                worstEnergy = localEnergy;
+            }
+        }
+        if (worst < 0) {
+            return;
+        }
+        int last = count - 1;
+        grid.remove(worst, x[worst], y[worst]);
+        if (worst != last) {
+            grid.remove(last, x[last], y[last]);
+            x[worst] = x[last];
+            y[worst] = y[last];
+            grid.insert(worst, x[worst], y[worst]);
+        }
+        count--;
+        countOverlaps();
+        reheat();
+    }
+
+    private void countOverlaps() {
+        overlappingPairs = 0;
+        for (int i = 0; i < count; i++) {
+            evaluate(i, x[i], y[i]);
+            overlappingPairs += localPairs;
+        }
+        // Every pair was seen from both sides
+        overlappingPairs /= 2;
+    }
+
+    private void reheat() {
+        temperature = Math.max(temperature, START_TEMPERATURE);
+    }
+
+    private void adapt() {
+        double acceptance = (double) accepted / ADAPT_INTERVAL;
+        step = acceptance > ACCEPTANCE_TARGET ? Math.min(MAX_STEP, step * 1.1) : Math.max(MIN_STEP, step / 1.1);
+        temperature = Math.max(MIN_TEMPERATURE, temperature * COOLING);
+        accepted = 0;
+    }
+
+    private void saveBest() {
+        bestCount = count;
+        bestX = Arrays.copyOf(x, count);
+        bestY = Arrays.copyOf(y, count);
+        bestLayout = null;
+    }
+
+    private static long clamp(long value, long min, long max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
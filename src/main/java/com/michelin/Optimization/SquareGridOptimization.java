@@ -1,9 +1,6 @@
 package com.michelin.Optimization;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import com.michelin.utils.Tire;
+import com.michelin.utils.TireLayout;
 
 public class SquareGridOptimization implements AbstractOptimization {
     private final long radius;
@@ -11,7 +8,7 @@ public class SquareGridOptimization implements AbstractOptimization {
     private final long height;
     private final long distBorder;
     private final long distTire;
-    private List<Tire> tires;
+    private TireLayout layout;
 
     public SquareGridOptimization(long radius, long width, long height, long distBorder, long distTire) {
         this.radius = radius;
@@ -21,46 +18,72 @@ public class SquareGridOptimization implements AbstractOptimization {
         this.distTire = distTire;
     }
 
+    /**
+     * Number of tires in the layout built by this class, without building it.
+     * Every tire of the grid is valid, so this is also its valid count.
+     */
+    public static long capacity(long radius, long width, long height, long distBorder, long distTire) {
+        long tireSpacing = 2 * radius + distTire;
+        if (tireSpacing <= 0) {
+            return 0;
+        }
+        return perAxis(radius, width, distBorder, tireSpacing) * perAxis(radius, height, distBorder, tireSpacing);
+    }
+
+    public long capacity() {
+        return capacity(radius, width, height, distBorder, distTire);
+    }
+
+    // Tires along one side: limited by the (size - distBorder) / spacing slots and by the far border
+    private static long perAxis(long radius, long size, long distBorder, long tireSpacing) {
+        long slots = Math.max(0, (size - distBorder) / tireSpacing);
+        return Math.min(slots, LatticeMath.slots(distBorder + radius, size - distBorder - radius, tireSpacing));
+    }
+
     @Override
     public void setup() {
-        tires = new ArrayList<>();
+        layout = null;
     }
 
+    // The layout is closed-form, it is only built when getResult() asks for it
     @Override
     public void run() {
-        // Calculate effective dimensions accounting for border distance
-        long effectiveWidth = width - distBorder;
-        long effectiveHeight = height - distBorder;
+    }
 
-        // Calculate spacing between tire centers (Prueba de cambio)
-        long tireSpacing = 2 * radius + distTire;
+    @Override
+    public TireLayout getResult() {
+        if (layout == null) {
+            layout = buildLayout();
+        }
+        return layout;
+    }
 
-        // Calculate number of tires that can fit in each direction
-        long tiresPerRow = (effectiveWidth / tireSpacing);
-        long tiresPerColumn = (effectiveHeight / tireSpacing);
+    private TireLayout buildLayout() {
+        long tireSpacing = 2 * radius + distTire;
+        if (tireSpacing <= 0) {
+            return TireLayout.empty(radius);
+        }
+        long tiresPerRow = perAxis(radius, width, distBorder, tireSpacing);
+        long tiresPerColumn = perAxis(radius, height, distBorder, tireSpacing);
+        long[] xs = new long[Math.toIntExact(tiresPerRow * tiresPerColumn)];
+        long[] ys = new long[xs.length];
+        int index = 0;
 
-        // Calculate starting position to center the grid
+        // Start at the border so the first tire touches the margin
         long startX = distBorder + radius;
         long startY = distBorder + radius;
 
         // Place tires in a grid pattern
-        for (int row = 0; row < tiresPerColumn; row++) {
-            for (int col = 0; col < tiresPerRow; col++) {
+        for (long row = 0; row < tiresPerColumn; row++) {
+            for (long col = 0; col < tiresPerRow; col++) {
                 long x = startX + col * tireSpacing;
                 long y = startY + row * tireSpacing;
-
-                // Validate if the tire fits within the effective dimensions
-                if (x + radius <= width - distBorder && y + radius <= height - distBorder) {
-                    // Create new tire at calculated position
-                    tires.add(new Tire("Michelin Pilot Sport", radius, x, y));
-                }
+                xs[index] = x;
+                ys[index] = y;
+                index++;
             }
         }
-    }
-
-    @Override
-    public List<Tire> getResult() {
-        return tires;
+        return new TireLayout(radius, xs, ys);
     }
 
     @Override
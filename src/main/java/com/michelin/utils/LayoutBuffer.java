@@ -0,0 +1,50 @@
+package com.michelin.utils;
+
+/**
+ * Reusable primitive storage for the positions of a layout of equal tires.
+ * Optimizers write into a buffer the caller owns, so reading the current
+ * layout does not allocate once the arrays are large enough. An immutable
+ * TireLayout is only taken with toLayout() when a result is handed over.
+ */
+public class LayoutBuffer {
+    private long radius;
+    private int size;
+    private long[] x = new long[0];
+    private long[] y = new long[0];
+
+    // Prepares the buffer for size tires, keeping the arrays when they are large enough
+    public void reset(long radius, int size) {
+        if (x.length < size) {
+            x = new long[size];
+            y = new long[size];
+        }
+        this.radius = radius;
+        this.size = size;
+    }
+
+    public void set(int index, long positionX, long positionY) {
+        x[index] = positionX;
+        y[index] = positionY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getRadius() {
+        return radius;
+    }
+
+    public long getX(int index) {
+        return x[index];
+    }
+
+    public long getY(int index) {
+        return y[index];
+    }
+
+    // Copy for results that outlive the buffer
+    public TireLayout toLayout() {
+        return new TireLayout(radius, x, y, size);
+    }
+}
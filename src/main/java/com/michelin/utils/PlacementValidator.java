@@ -0,0 +1,143 @@
+package com.michelin.utils;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Validates a whole layout at once. The tires are bucketed into a SpatialGrid
+ * a single time and each tire is only compared with the tires in its 3x3
+ * neighbourhood, so a layout is checked in roughly linear time instead of the
+ * quadratic cost of calling Tire.isValidTire for every tire.
+ *
+ * A tire is valid when it lies inside the container minus the border margin
+ * and no other tire is closer than r1 + r2 + distTire - 1. Distances are
+ * compared squared in integer arithmetic.
+ */
+public class PlacementValidator {
+    private final long width;
+    private final long height;
+    private final long distBorder;
+    private final long distTire;
+
+    public PlacementValidator(long width, long height, long distBorder, long distTire) {
+        this.width = width;
+        this.height = height;
+        this.distBorder = distBorder;
+        this.distTire = distTire;
+    }
+
+    public long getWidth() {
+        return width;
+    }
+
+    public long getHeight() {
+        return height;
+    }
+
+    public long getDistBorder() {
+        return distBorder;
+    }
+
+    public long getDistTire() {
+        return distTire;
+    }
+
+    public BitSet validate(List<? extends Tire> tires) {
+        return validate(tires, false);
+    }
+
+    // Bit i is set when tires.get(i) is valid
+    public BitSet validate(List<? extends Tire> tires, boolean parallel) {
+        int n = tires.size();
+        long[] xs = new long[n];
+        long[] ys = new long[n];
+        long[] radii = new long[n];
+        for (int i = 0; i < n; i++) {
+            Tire tire = tires.get(i);
+            xs[i] = tire.getPositionX();
+            ys[i] = tire.getPositionY();
+            radii[i] = tire.getRadius();
+        }
+        return validate(xs, ys, radii, parallel);
+    }
+
+    public BitSet validate(TireLayout layout) {
+        return validate(layout, false);
+    }
+
+    // Bit i is set when tire i of the layout is valid, reads the layout's arrays without copying them
+    public BitSet validate(TireLayout layout, boolean parallel) {
+        long[] radii = new long[layout.size()];
+        Arrays.fill(radii, layout.getRadius());
+        return validate(layout.xs(), layout.ys(), radii, parallel);
+    }
+
+    public int countValid(List<? extends Tire> tires) {
+        return validate(tires).cardinality();
+    }
+
+    public int countValid(TireLayout layout) {
+        return validate(layout).cardinality();
+    }
+
+    private BitSet validate(long[] xs, long[] ys, long[] radii, boolean parallel) {
+        int n = xs.length;
+        long maxRadius = 0;
+        for (long r : radii) {
+            maxRadius = Math.max(maxRadius, r);
+        }
+
+        SpatialGrid grid = new SpatialGrid(2 * maxRadius + distTire, width, height, n);
+        for (int i = 0; i < n; i++) {
+            grid.insert(i, xs[i], ys[i]);
+        }
+
+        boolean[] valid = new boolean[n];
+        IntStream indices = IntStream.range(0, n);
+        if (parallel) {
+            indices = indices.parallel();
+        }
+        indices.forEach(i -> valid[i] = isValid(i, xs, ys, radii, grid));
+
+        BitSet result = new BitSet(n);
+        for (int i = 0; i < n; i++) {
+            if (valid[i]) {
+                result.set(i);
+            }
+        }
+        return result;
+    }
+
+    private boolean isValid(int i, long[] xs, long[] ys, long[] radii, SpatialGrid grid) {
+        long x = xs[i];
+        long y = ys[i];
+        long r = radii[i];
+        if (x - r < distBorder || x + r > width - distBorder || y - r < distBorder
+                || y + r > height - distBorder) {
+            return false;
+        }
+        int cx = grid.cellX(x);
+        int cy = grid.cellY(y);
+        for (int gy = Math.max(0, cy - 1); gy <= Math.min(grid.getRows() - 1, cy + 1); gy++) {
+            for (int gx = Math.max(0, cx - 1); gx <= Math.min(grid.getCols() - 1, cx + 1); gx++) {
+                for (int j = grid.head(gx, gy); j != -1; j = grid.next(j)) {
+                    if (j != i && tooClose(x - xs[j], y - ys[j], r + radii[j] + distTire - 1)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Exact integer form of (long) Math.sqrt(dx * dx + dy * dy) < minDist:
+     * for a non-negative integer m, floor(sqrt(d2)) < m holds exactly when
+     * d2 < m * m.
+     */
+    public static boolean tooClose(long dx, long dy, long minDist) {
+        return minDist > 0 && dx * dx + dy * dy < minDist * minDist;
+    }
+}
@@ -0,0 +1,147 @@
+package com.michelin.utils;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tasks of one optimization run, forked onto a shared executor. The scope
+ * knows which of its tasks are still queued or running, so a run can be
+ * cancelled and waited for without touching the executor, which keeps serving
+ * other runs. This is a Java 17 take on a structured task scope.
+ *
+ * Cancelling, either with shutdown() or by passing the deadline, makes
+ * isCancelled() true, interrupts the running tasks and turns the queued ones
+ * into no-ops. Long tasks are expected to poll isCancelled() between steps.
+ * The first exception thrown by a task is kept in getFailure().
+ */
+public class RunScope {
+    private final Executor executor;
+    private final Object lock = new Object();
+    private final Set<Thread> runningThreads = new HashSet<>();
+    private int activeTasks;
+    private volatile boolean cancelled;
+    private volatile long deadline;
+    private volatile boolean hasDeadline;
+    private volatile Throwable failure;
+    private Runnable onTaskDone;
+
+    public RunScope(Executor executor) {
+        this.executor = executor;
+    }
+
+    // Scope on the shared SolverPool
+    public static RunScope open() {
+        return new RunScope(SolverPool.shared());
+    }
+
+    // The scope cancels itself once timeout has elapsed from now
+    public void setTimeout(long timeout, TimeUnit unit) {
+        deadline = System.nanoTime() + unit.toNanos(timeout);
+        hasDeadline = true;
+    }
+
+    // Called on the worker thread after every task, once it no longer counts as active
+    public void setOnTaskDone(Runnable onTaskDone) {
+        this.onTaskDone = onTaskDone;
+    }
+
+    // Starts task on the executor, returns false without starting it when the scope is cancelled
+    public boolean fork(Runnable task) {
+        synchronized (lock) {
+            if (isCancelled()) {
+                return false;
+            }
+            activeTasks++;
+        }
+        try {
+            executor.execute(() -> runTask(task));
+        } catch (RuntimeException e) {
+            finishTask(null);
+            throw e;
+        }
+        return true;
+    }
+
+    public boolean isCancelled() {
+        if (!cancelled && hasDeadline && System.nanoTime() - deadline >= 0) {
+            cancelled = true;
+        }
+        return cancelled;
+    }
+
+    // Tasks forked and not finished yet, queued ones included
+    public int getActiveTasks() {
+        synchronized (lock) {
+            return activeTasks;
+        }
+    }
+
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    // Cancels the scope and interrupts its running tasks, does not wait for them
+    public void shutdown() {
+        synchronized (lock) {
+            cancelled = true;
+            for (Thread thread : runningThreads) {
+                thread.interrupt();
+            }
+        }
+    }
+
+    // Waits until every forked task has finished, returns false on timeout
+    public boolean join(long timeout, TimeUnit unit) throws InterruptedException {
+        long end = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (lock) {
+            while (activeTasks > 0) {
+                long left = end - System.nanoTime();
+                if (left <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(lock, left);
+            }
+            return true;
+        }
+    }
+
+    private void runTask(Runnable task) {
+        Thread thread = Thread.currentThread();
+        boolean started;
+        synchronized (lock) {
+            started = !isCancelled();
+            if (started) {
+                runningThreads.add(thread);
+            }
+        }
+        try {
+            if (started) {
+                task.run();
+            }
+        } catch (Throwable e) {
+            if (failure == null) {
+                failure = e;
+            }
+        } finally {
+            finishTask(started ? thread : null);
+        }
+    }
+
+    private void finishTask(Thread thread) {
+        synchronized (lock) {
+            if (thread != null) {
+                runningThreads.remove(thread);
+                // An interrupt meant for this task must not reach the next task of the pooled thread
+                Thread.interrupted();
+            }
+            activeTasks--;
+            lock.notifyAll();
+        }
+        Runnable callback = onTaskDone;
+        if (callback != null && thread != null) {
+            callback.run();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.michelin.utils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The one pool that runs CPU-bound solver work, shared by every optimization
+ * run in the JVM. It is a work-stealing pool with one thread per core, so
+ * concurrent runs share the cores instead of each starting its own pool, and
+ * restarts of uneven length keep every core busy. Threads are daemons that
+ * end after IDLE_SECONDS without work, so the pool is never shut down, needs
+ * no shutdown hook and does not keep idle threads in a long-lived process.
+ *
+ * Runs do not use the pool directly but through a RunScope, which cancels and
+ * waits for the tasks of one run only.
+ */
+public final class SolverPool {
+    private static final long IDLE_SECONDS = 30;
+
+    private SolverPool() {
+    }
+
+    private static final class Holder {
+        static final ForkJoinPool POOL = create(Runtime.getRuntime().availableProcessors());
+    }
+
+    public static ExecutorService shared() {
+        return Holder.POOL;
+    }
+
+    // Number of tasks the shared pool runs at the same time
+    public static int parallelism() {
+        return Holder.POOL.getParallelism();
+    }
+
+    // asyncMode runs forked tasks first in, first out, like the simulations are scheduled
+    private static ForkJoinPool create(int threads) {
+        AtomicInteger created = new AtomicInteger();
+        return new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("solver-" + created.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, null, true, 0, threads, 1, null, IDLE_SECONDS, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,113 @@
+package com.michelin.utils;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid over the container used to find nearby tires without scanning
+ * the whole list. Tires are referenced by their index and stored in per-cell
+ * linked lists backed by int arrays, so clearing and refilling the grid every
+ * step does not allocate.
+ *
+ * Single tires can also be removed or moved, for optimizers that change one
+ * tire at a time. The caller passes the position the tire was inserted with.
+ *
+ * Positions outside the container are clamped to the border cells. Clamping
+ * never moves two points further apart in cell units, so any pair closer than
+ * the cell size is still found in the 3x3 neighbourhood.
+ */
+public class SpatialGrid {
+    // Upper bound on cells so tiny cutoffs do not blow up memory
+    private static final int MAX_CELLS = 1 << 20;
+
+    private final long cellSize;
+    private final int cols;
+    private final int rows;
+    private final int[] cellHead;
+    private int[] next;
+
+    public SpatialGrid(long minCellSize, long width, long height, int capacity) {
+        long size = Math.max(1, minCellSize);
+        while ((width / size + 1) * (height / size + 1) > MAX_CELLS) {
+            size *= 2;
+        }
+        this.cellSize = size;
+        this.cols = (int) (width / size) + 1;
+        this.rows = (int) (height / size) + 1;
+        this.cellHead = new int[cols * rows];
+        this.next = new int[Math.max(1, capacity)];
+        clear();
+    }
+
+    public void clear() {
+        Arrays.fill(cellHead, -1);
+    }
+
+    public void insert(int index, long x, long y) {
+        if (index >= next.length) {
+            next = Arrays.copyOf(next, Math.max(index + 1, next.length * 2));
+        }
+        int cell = cellY(y) * cols + cellX(x);
+        next[index] = cellHead[cell];
+        cellHead[cell] = index;
+    }
+
+    // Unlinks the tire from the cell of (x, y), walking that cell's list
+    public void remove(int index, long x, long y) {
+        int cell = cellY(y) * cols + cellX(x);
+        if (cellHead[cell] == index) {
+            cellHead[cell] = next[index];
+            return;
+        }
+        for (int j = cellHead[cell]; j != -1; j = next[j]) {
+            if (next[j] == index) {
+                next[j] = next[index];
+                return;
+            }
+        }
+    }
+
+    // Relinks the tire only when it changes cell
+    public void move(int index, long oldX, long oldY, long newX, long newY) {
+        if (cellX(oldX) != cellX(newX) || cellY(oldY) != cellY(newY)) {
+            remove(index, oldX, oldY);
+            insert(index, newX, newY);
+        }
+    }
+
+    public int cellX(long x) {
+        return clamp(x / cellSize, cols);
+    }
+
+    public int cellY(long y) {
+        return clamp(y / cellSize, rows);
+    }
+
+    // First tire index in the cell, or -1 if the cell is empty
+    public int head(int cx, int cy) {
+        return cellHead[cy * cols + cx];
+    }
+
+    // Following tire index in the same cell, or -1 at the end of the list
+    public int next(int index) {
+        return next[index];
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public long getCellSize() {
+        return cellSize;
+    }
+
+    private static int clamp(long cell, int count) {
+        if (cell < 0) {
+            return 0;
+        }
+        return (int) Math.min(cell, count - 1);
+    }
+}
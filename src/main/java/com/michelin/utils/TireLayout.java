@@ -0,0 +1,96 @@
+package com.michelin.utils;
+
+import java.util.Arrays;
+
+/**
+ * Immutable layout of equal tires: the radius plus one centre per tire in
+ * primitive arrays. This is what every AbstractOptimization returns, so a
+ * result can be shared between the solver thread and its readers without
+ * copying, and holding one costs two arrays instead of a Tire per position.
+ *
+ * A tire is identified by its index in the layout.
+ */
+public final class TireLayout {
+    private static final long[] NONE = new long[0];
+
+    private final long radius;
+    private final long[] x;
+    private final long[] y;
+
+    // Copies the first size entries of x and y
+    public TireLayout(long radius, long[] x, long[] y, int size) {
+        this.radius = radius;
+        this.x = Arrays.copyOf(x, size);
+        this.y = Arrays.copyOf(y, size);
+    }
+
+    public TireLayout(long radius, long[] x, long[] y) {
+        this(radius, x, y, x.length);
+    }
+
+    private TireLayout(long radius) {
+        this.radius = radius;
+        this.x = NONE;
+        this.y = NONE;
+    }
+
+    public static TireLayout empty(long radius) {
+        return new TireLayout(radius);
+    }
+
+    public int size() {
+        return x.length;
+    }
+
+    public boolean isEmpty() {
+        return x.length == 0;
+    }
+
+    public long getRadius() {
+        return radius;
+    }
+
+    public long getX(int index) {
+        return x[index];
+    }
+
+    public long getY(int index) {
+        return y[index];
+    }
+
+    // Same tires with x and y swapped, the layout for the container with width and height swapped
+    public TireLayout transposed() {
+        return new TireLayout(radius, y, x);
+    }
+
+    // Backing arrays for readers in this package that must not modify them
+    long[] xs() {
+        return x;
+    }
+
+    long[] ys() {
+        return y;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof TireLayout)) {
+            return false;
+        }
+        TireLayout layout = (TireLayout) other;
+        return radius == layout.radius && Arrays.equals(x, layout.x) && Arrays.equals(y, layout.y);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Long.hashCode(radius) + Arrays.hashCode(x)) + Arrays.hashCode(y);
+    }
+
+    @Override
+    public String toString() {
+        return "TireLayout{radius=" + radius + ", size=" + x.length + '}';
+    }
+}
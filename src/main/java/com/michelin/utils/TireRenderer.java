@@ -0,0 +1,87 @@
+package com.michelin.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+// JavaFX drawing for Tire, kept apart so the model does not need JavaFX loaded
+public final class TireRenderer {
+    // Margin around the circle in the sprite so antialiased edges are not cut
+    public static final double SPRITE_PADDING = 2;
+
+    // Pre-rendered tire images by radius (internal units) and color, FX thread only
+    private static final Map<String, WritableImage> sprites = new HashMap<>();
+
+    private TireRenderer() {
+    }
+
+    // Draws the cached image of the tire instead of issuing every shape again
+    public static void drawSprite(GraphicsContext gc, Tire tire) {
+        drawSprite(gc, tire.getRadius(), tire.getPositionX(), tire.getPositionY());
+    }
+
+    // Same as above for a tire of a TireLayout, without a Tire object
+    public static void drawSprite(GraphicsContext gc, long radius, long x, long y) {
+        WritableImage sprite = sprite(radius, Color.BLACK);
+        double offset = radius / 1000.0 + SPRITE_PADDING;
+        gc.drawImage(sprite, x / 1000.0 - offset, y / 1000.0 - offset);
+    }
+
+    public static WritableImage sprite(long radius, Color color) {
+        return sprites.computeIfAbsent(radius + "/" + color, key -> renderSprite(radius, color));
+    }
+
+    private static WritableImage renderSprite(long radius, Color color) {
+        double r = radius / 1000.0;
+        int size = (int) Math.ceil(2 * (r + SPRITE_PADDING));
+        Canvas canvas = new Canvas(size, size);
+        double center = r + SPRITE_PADDING;
+        draw(canvas.getGraphicsContext2D(), new Tire("Sprite", radius, (long) (center * 1000), (long) (center * 1000)),
+                color);
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        return canvas.snapshot(parameters, new WritableImage(size, size));
+    }
+
+    public static void draw(GraphicsContext gc, Tire tire) {
+        draw(gc, tire, Color.BLACK);
+    }
+
+    public static void drawInvalid(GraphicsContext gc, Tire tire) {
+        draw(gc, tire, Color.RED);
+    }
+
+    public static void draw(GraphicsContext gc, Tire tire, Color color) {
+        // Convert from millimeters (stored as long) to pixels (float) by dividing by 1000
+        float x = tire.getPositionX() / 1000.0f; // Center X coordinate in pixels
+        float y = tire.getPositionY() / 1000.0f; // Center Y coordinate in pixels
+        float r = tire.getRadius() / 1000.0f; // Radius in pixels
+
+        // Draw the main black tire circle
+        gc.setFill(color);
+        gc.fillOval(x - r, y - r, r * 2, r * 2); // Draw centered at (x,y)
+
+        // Draw inner gray ring to create tire rim effect
+        gc.setStroke(Color.GRAY);
+        gc.setLineWidth(5);
+        gc.strokeOval(x - r + 5, y - r + 5, r * 2 - 10, r * 2 - 10); // Slightly smaller than main circle
+
+        // Draw 8 evenly spaced tread marks around the tire
+        gc.setLineWidth(2);
+        gc.setStroke(Color.GRAY);
+        for (int i = 0; i < 8; i++) {
+            double angle = i * Math.PI / 4; // Divide circle into 8 equal segments
+            // Calculate start/end points for each tread mark
+            double startX = x + Math.cos(angle) * (r - 10); // Outer point
+            double startY = y + Math.sin(angle) * (r - 10);
+            double endX = x + Math.cos(angle) * (r - 20); // Inner point
+            double endY = y + Math.sin(angle) * (r - 20);
+            gc.strokeLine(startX, startY, endX, endY);
+        }
+    }
+}